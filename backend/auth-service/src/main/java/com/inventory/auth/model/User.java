@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -19,8 +20,10 @@ public class User {
     
     @Id
     private String id;
+    @Indexed(unique = true)
     private String username;
     private String password;
+    @Indexed(unique = true)
     private String email;
     private String fullName;
     private Set<Role> roles;
@@ -0,0 +1,79 @@
+package com.inventory.inventory.config;
+
+import com.inventory.inventory.model.InventoryItem;
+import com.inventory.inventory.model.Money;
+import com.inventory.inventory.model.ReservationRecord;
+import com.inventory.inventory.model.StockHold;
+import com.mongodb.client.model.Filters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexConfig {
+    
+    private static final List<Class<?>> INDEXED_DOCUMENTS = Arrays.asList(
+            InventoryItem.class, StockHold.class, ReservationRecord.class);
+    
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
+    
+    // Spring Boot no longer creates annotated indexes automatically, so ensure them once the context is up
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        for (Class<?> documentType : INDEXED_DOCUMENTS) {
+            IndexOperations indexOps = mongoTemplate.indexOps(documentType);
+            resolver.resolveIndexFor(documentType).forEach(indexOps::ensureIndex);
+            log.info("Ensured indexes for {}", documentType.getSimpleName());
+        }
+    }
+    
+    // Documents written before versioning have no version field; Spring Data would treat them as new and insert
+    @EventListener(ContextRefreshedEvent.class)
+    public void backfillVersions() {
+        long updated = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("version").exists(false)),
+                Update.update("version", 0L),
+                InventoryItem.class).getModifiedCount();
+        if (updated > 0) {
+            log.info("Initialized version on {} InventoryItem document(s)", updated);
+        }
+    }
+    
+    // Prices used to be stored as decimal strings; rewrite them as Money so stock value aggregations can sum them
+    @EventListener(ContextRefreshedEvent.class)
+    public void migrateLegacyPrices() {
+        long scale = Math.round(Math.pow(10, Money.DEFAULT_CURRENCY.getDefaultFractionDigits()));
+        Document minorUnits = new Document("$toLong", new Document("$round", Arrays.asList(
+                new Document("$multiply", Arrays.asList(new Document("$toDecimal", "$price"), scale)), 0)));
+        long updated = mongoTemplate.getCollection(mongoTemplate.getCollectionName(InventoryItem.class))
+                .updateMany(Filters.or(Filters.type("price", BsonType.STRING),
+                                Filters.type("price", BsonType.DECIMAL128)),
+                        Collections.singletonList(new Document("$set", new Document("price", new Document()
+                                .append("minorUnits", minorUnits)
+                                .append("currency", Money.DEFAULT_CURRENCY.getCurrencyCode())))))
+                .getModifiedCount();
+        if (updated > 0) {
+            log.info("Migrated price to minor units on {} InventoryItem document(s)", updated);
+        }
+    }
+}
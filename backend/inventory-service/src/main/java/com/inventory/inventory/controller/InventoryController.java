@@ -1,17 +1,36 @@
 package com.inventory.inventory.controller;
 
+import com.inventory.inventory.dto.BatchGetRequest;
+import com.inventory.inventory.dto.BatchGetResponse;
+import com.inventory.inventory.dto.BatchReservationRequest;
+import com.inventory.inventory.dto.BatchReservationResponse;
+import com.inventory.inventory.dto.CursorPageResponse;
+import com.inventory.inventory.dto.InventoryImportReport;
 import com.inventory.inventory.dto.InventoryRequest;
 import com.inventory.inventory.dto.InventoryResponse;
+import com.inventory.inventory.dto.InventorySummaryResponse;
+import com.inventory.inventory.dto.QuantityUpdateResult;
+import com.inventory.inventory.dto.ReservationReleaseRequest;
+import com.inventory.inventory.dto.ReservationRequest;
+import com.inventory.inventory.dto.ReservationResponse;
 import com.inventory.inventory.model.InventoryItem;
+import com.inventory.inventory.service.InventoryImportService;
 import com.inventory.inventory.service.InventoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -20,7 +39,11 @@ import java.util.List;
 @Tag(name = "Inventory API", description = "Endpoints for managing inventory items")
 public class InventoryController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    
     private final InventoryService inventoryService;
+    private final InventoryImportService inventoryImportService;
     
     @PostMapping
     @Operation(summary = "Create a new inventory item")
@@ -31,6 +54,20 @@ public class InventoryController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV})
+    @Operation(summary = "Upsert a catalogue streamed as newline-delimited JSON or CSV")
+    public ResponseEntity<InventoryImportReport> importInventoryItems(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader("X-User-Id") String userId) throws IOException {
+        InventoryImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(
+                MediaType.parseMediaType(CSV))
+                ? InventoryImportService.Format.CSV
+                : InventoryImportService.Format.NDJSON;
+        InventoryImportReport report = inventoryImportService.importCatalogue(body, format, userId);
+        return ResponseEntity.ok(report);
+    }
+    
     @GetMapping
     @Operation(summary = "Get all inventory items")
     public ResponseEntity<List<InventoryResponse>> getAllInventoryItems() {
@@ -38,11 +75,49 @@ public class InventoryController {
         return ResponseEntity.ok(items);
     }
     
+    @GetMapping("/page")
+    @Operation(summary = "Get inventory items one keyset page at a time")
+    public ResponseEntity<CursorPageResponse<InventoryResponse>> getInventoryItemsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        CursorPageResponse<InventoryResponse> page = inventoryService.getInventoryItemsPage(cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping(value = "/stream", produces = NDJSON)
+    @Operation(summary = "Stream all inventory items as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> streamInventoryItems() {
+        StreamingResponseBody body = outputStream ->
+                inventoryService.streamInventoryItems(new BufferedOutputStream(outputStream));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Get many inventory items by ID in one request")
+    public ResponseEntity<BatchGetResponse> getInventoryItems(@Valid @RequestBody BatchGetRequest request) {
+        BatchGetResponse response = inventoryService.getInventoryItems(request.getIds());
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/summary")
+    @Operation(summary = "Get item counts by status and stock value by category")
+    public ResponseEntity<InventorySummaryResponse> getInventorySummary() {
+        InventorySummaryResponse summary = inventoryService.getInventorySummary();
+        return ResponseEntity.ok(summary);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get inventory item by ID")
-    public ResponseEntity<InventoryResponse> getInventoryItemById(@PathVariable String id) {
+    public ResponseEntity<InventoryResponse> getInventoryItemById(@PathVariable String id, WebRequest webRequest) {
         InventoryResponse item = inventoryService.getInventoryItemById(id);
-        return ResponseEntity.ok(item);
+        // Hot item sales reach the version when they are flushed, so polls may lag by one flush interval
+        String eTag = ETags.of(item.getVersion());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(item);
     }
     
     @GetMapping("/category/{category}")
@@ -61,9 +136,11 @@ public class InventoryController {
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Search inventory items by name")
-    public ResponseEntity<List<InventoryResponse>> searchInventoryItems(@RequestParam String keyword) {
-        List<InventoryResponse> items = inventoryService.searchInventoryItems(keyword);
+    @Operation(summary = "Search inventory items by name, ranked by relevance")
+    public ResponseEntity<List<InventoryResponse>> searchInventoryItems(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<InventoryResponse> items = inventoryService.searchInventoryItems(keyword, limit);
         return ResponseEntity.ok(items);
     }
     
@@ -72,17 +149,69 @@ public class InventoryController {
     public ResponseEntity<InventoryResponse> updateInventoryItem(
             @PathVariable String id,
             @Valid @RequestBody InventoryRequest request,
-            @RequestHeader("X-User-Id") String userId) {
-        InventoryResponse updatedItem = inventoryService.updateInventoryItem(id, request, userId);
-        return ResponseEntity.ok(updatedItem);
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        InventoryResponse updatedItem = inventoryService.updateInventoryItem(
+                id, request, userId, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updatedItem.getVersion())).body(updatedItem);
     }
     
     @PutMapping("/{id}/quantity")
     @Operation(summary = "Update inventory quantity")
-    public ResponseEntity<Void> updateInventoryQuantity(
+    public ResponseEntity<QuantityUpdateResult> updateInventoryQuantity(
             @PathVariable String id,
             @RequestParam int quantity) {
-        inventoryService.updateInventoryQuantity(id, quantity);
+        QuantityUpdateResult result = inventoryService.updateInventoryQuantity(id, quantity);
+        if (!result.isUpdated()) {
+            return new ResponseEntity<>(result, HttpStatus.CONFLICT);
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/reservations")
+    @Operation(summary = "Reserve stock for every line of an order, all-or-nothing")
+    public ResponseEntity<ReservationResponse> reserveInventory(@Valid @RequestBody ReservationRequest request) {
+        ReservationResponse response = inventoryService.reserveInventory(request);
+        if (response.getStatus() == ReservationResponse.ReservationStatus.REJECTED) {
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+    
+    @PostMapping("/reservations/{referenceId}/release")
+    @Operation(summary = "Give back the stock reserved for a reference; repeated calls have no further effect")
+    public ResponseEntity<ReservationResponse> releaseReservation(
+            @PathVariable String referenceId, @Valid @RequestBody ReservationReleaseRequest request) {
+        return ResponseEntity.ok(inventoryService.releaseReservation(referenceId, request));
+    }
+    
+    @PostMapping("/reservations/batch")
+    @Operation(summary = "Reserve stock for several orders in one call, each all-or-nothing")
+    public ResponseEntity<BatchReservationResponse> reserveInventoryBatch(
+            @Valid @RequestBody BatchReservationRequest request) {
+        BatchReservationResponse response = inventoryService.reserveInventoryBatch(request.getReservations());
+        return ResponseEntity.ok(response);
+    }
+    
+    @PutMapping("/{id}/hot")
+    @Operation(summary = "Serve stock decrements for this item from in-memory counters")
+    public ResponseEntity<Void> markHot(@PathVariable String id) {
+        inventoryService.markHot(id);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{id}/hot")
+    @Operation(summary = "Return this item to regular Mongo-backed stock updates")
+    public ResponseEntity<Void> unmarkHot(@PathVariable String id) {
+        inventoryService.unmarkHot(id);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{id}/hot/shares/{owner}")
+    @Operation(summary = "Release the expired hot share of an instance that will not come back; "
+            + "its unflushed sales are lost")
+    public ResponseEntity<Void> releaseExpiredHotShare(@PathVariable String id, @PathVariable String owner) {
+        inventoryService.releaseExpiredHotShare(id, owner);
         return ResponseEntity.noContent().build();
     }
     
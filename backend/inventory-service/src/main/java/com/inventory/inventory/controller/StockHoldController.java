@@ -0,0 +1,61 @@
+package com.inventory.inventory.controller;
+
+import com.inventory.inventory.dto.HoldRequest;
+import com.inventory.inventory.dto.HoldResponse;
+import com.inventory.inventory.model.StockHold;
+import com.inventory.inventory.service.StockHoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/inventory/holds")
+@RequiredArgsConstructor
+@Tag(name = "Stock Hold API", description = "Endpoints for time-bounded stock holds")
+public class StockHoldController {
+    
+    private final StockHoldService stockHoldService;
+    
+    @PostMapping
+    @Operation(summary = "Hold stock for every line until it is committed, released or expires")
+    public ResponseEntity<HoldResponse> createHold(@Valid @RequestBody HoldRequest request) {
+        HoldResponse response = stockHoldService.createHold(request);
+        if (response.getStatus() == StockHold.HoldStatus.REJECTED) {
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+    
+    @GetMapping("/{holdId}")
+    @Operation(summary = "Get stock hold by ID")
+    public ResponseEntity<HoldResponse> getHold(@PathVariable String holdId) {
+        HoldResponse response = stockHoldService.getHold(holdId);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/{holdId}/commit")
+    @Operation(summary = "Commit a stock hold, deducting the held quantity from stock")
+    public ResponseEntity<HoldResponse> commitHold(@PathVariable String holdId) {
+        HoldResponse response = stockHoldService.commitHold(holdId);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/{holdId}/restock")
+    @Operation(summary = "Return the stock of a committed hold, for orders cancelled after confirmation")
+    public ResponseEntity<HoldResponse> restockHold(@PathVariable String holdId) {
+        HoldResponse response = stockHoldService.restockHold(holdId);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/{holdId}/release")
+    @Operation(summary = "Release a stock hold, returning the held quantity to available stock")
+    public ResponseEntity<HoldResponse> releaseHold(@PathVariable String holdId) {
+        HoldResponse response = stockHoldService.releaseHold(holdId);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,21 @@
+package com.inventory.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetRequest {
+    
+    @NotEmpty(message = "At least one ID is required")
+    @Size(max = 5000, message = "At most 5000 IDs can be fetched at once")
+    private List<String> ids;
+}
@@ -0,0 +1,30 @@
+package com.inventory.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetResponse {
+    
+    // One result per requested ID, in request order
+    private List<Result> results;
+    private List<String> notFoundIds;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        
+        private String id;
+        private boolean found;
+        private InventoryResponse item;
+    }
+}
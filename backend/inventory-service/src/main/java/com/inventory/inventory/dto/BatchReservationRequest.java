@@ -0,0 +1,23 @@
+package com.inventory.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReservationRequest {
+    
+    @Valid
+    @NotEmpty(message = "Batch must contain at least one reservation")
+    @Size(max = 500, message = "At most 500 reservations can be placed at once")
+    private List<ReservationRequest> reservations;
+}
@@ -0,0 +1,18 @@
+package com.inventory.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReservationResponse {
+    
+    // One result per reservation, in request order
+    private List<ReservationResponse> results;
+}
@@ -0,0 +1,29 @@
+package com.inventory.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldRequest {
+    
+    @NotBlank(message = "Reference ID is required")
+    private String referenceId;
+    
+    @Valid
+    @NotEmpty(message = "Hold must contain at least one item")
+    private List<ReservationRequest.Line> items;
+    
+    @Min(value = 1, message = "TTL must be at least 1 second")
+    private Long ttlSeconds;
+}
@@ -0,0 +1,26 @@
+package com.inventory.inventory.dto;
+
+import com.inventory.inventory.model.StockHold;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldResponse {
+    
+    private String holdId;
+    private String referenceId;
+    private StockHold.HoldStatus status;
+    private List<StockHold.HoldLine> items;
+    private List<String> insufficientProductIds;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,49 @@
+package com.inventory.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryImportReport {
+    
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long failed;
+    // Only the first errors are kept so the report stays small for very large files
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    private long elapsedMs;
+    private long rowsPerSecond;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        
+        private long line;
+        private String id;
+        private String message;
+    }
+    
+    // Outcome of one bulk upsert; failures are keyed by the row's index within the chunk
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChunkResult {
+        
+        private int inserted;
+        private int updated;
+        private Map<Integer, String> failures;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Digits;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -30,5 +31,6 @@ public class InventoryRequest {
     
     @NotNull(message = "Price is required")
     @Min(value = 0, message = "Price cannot be negative")
+    @Digits(integer = 15, fraction = 2, message = "Price must have at most 2 decimal places")
     private BigDecimal price;
 }
@@ -20,8 +20,11 @@ public class InventoryResponse {
     private String category;
     private String description;
     private int quantity;
+    private int reservedQuantity;
+    private int availableQuantity;
     private BigDecimal price;
     private InventoryItem.InventoryStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 }
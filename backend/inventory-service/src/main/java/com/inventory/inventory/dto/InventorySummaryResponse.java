@@ -0,0 +1,53 @@
+package com.inventory.inventory.dto;
+
+import com.inventory.inventory.model.InventoryItem;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySummaryResponse {
+    
+    private long totalItems;
+    private long totalUnits;
+    private BigDecimal totalStockValue;
+    private Map<InventoryItem.InventoryStatus, Long> itemsByStatus;
+    private List<CategorySummary> categories;
+    private LocalDateTime lastReconciledAt;
+    private long lastReconciliationDrift;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategorySummary {
+        
+        private String category;
+        private long totalItems;
+        private long totalUnits;
+        private BigDecimal stockValue;
+        private Map<InventoryItem.InventoryStatus, Long> itemsByStatus;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BucketTotals {
+        
+        private String category;
+        private InventoryItem.InventoryStatus status;
+        private long itemCount;
+        private long units;
+        private BigDecimal stockValue;
+    }
+}
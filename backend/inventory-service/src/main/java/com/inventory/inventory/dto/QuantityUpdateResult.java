@@ -0,0 +1,27 @@
+package com.inventory.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuantityUpdateResult {
+    
+    private String id;
+    private Outcome outcome;
+    private int requestedQuantity;
+    private Integer remainingQuantity;
+    
+    public enum Outcome {
+        UPDATED,
+        INSUFFICIENT_STOCK
+    }
+    
+    public boolean isUpdated() {
+        return outcome == Outcome.UPDATED;
+    }
+}
@@ -0,0 +1,25 @@
+package com.inventory.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationReleaseRequest {
+    
+    // The lines the reservation was placed with; they are added back only if the reservation is still held
+    @Valid
+    @NotEmpty(message = "Release must contain at least one item")
+    private List<ReservationRequest.Line> items;
+    
+    // Set when the caller saw the reservation succeed, so a record that has already expired is still released
+    private boolean confirmed;
+}
@@ -0,0 +1,28 @@
+package com.inventory.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+    
+    private String referenceId;
+    private ReservationStatus status;
+    private List<String> insufficientProductIds;
+    
+    public enum ReservationStatus {
+        RESERVED,
+        REJECTED,
+        // The reference holds no stock any more
+        RELEASED,
+        // Batch only: another call is still placing this reservation; retry the reference later
+        IN_PROGRESS
+    }
+}
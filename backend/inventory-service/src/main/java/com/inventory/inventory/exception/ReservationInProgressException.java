@@ -0,0 +1,8 @@
+package com.inventory.inventory.exception;
+
+public class ReservationInProgressException extends RuntimeException {
+    
+    public ReservationInProgressException(String message) {
+        super(message);
+    }
+}
@@ -5,10 +5,13 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 @Data
 @Builder
@@ -20,14 +23,28 @@ public class InventoryItem {
     @Id
     private String id;
     private String name;
+    @Indexed
     private String category;
     private String description;
+    @Indexed
     private int quantity;
-    private BigDecimal price;
+    // Portion of quantity held by open stock holds; still on hand but not available for sale
+    private int reservedQuantity;
+    private Money price;
+    @Indexed
     private InventoryStatus status;
     private String createdBy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Batch adjustments currently in flight against this item, used to roll back partial or abandoned batches
+    private List<PendingReservation> pendingReservations;
+    // Hot item mode: each instance sells from its own share of the available stock, leased to its in-memory counter
+    @Indexed
+    private boolean hot;
+    private List<HotShare> hotShares;
+    // Bumped by every save and by the raw stock updates; exposed to clients as the ETag
+    @Version
+    private Long version;
     
     public enum InventoryStatus {
         IN_STOCK,
@@ -35,14 +52,69 @@ public class InventoryItem {
         OUT_OF_STOCK
     }
     
-    // Update status based on quantity
+    // Marks one line of an all-or-nothing batch until the whole batch is known to have applied
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PendingReservation {
+        
+        // Unique per batch attempt, so a retried reference never touches an earlier attempt's lines
+        private String token;
+        private String reservationId;
+        private int quantityDelta;
+        private int reservedDelta;
+        // Set when the line came out of that instance's hot share, which a rollback refills
+        private String shareOwner;
+        @Indexed
+        private LocalDateTime appliedAt;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HotShare {
+        
+        // Instance id of the counter holding the share; kept after release so its journal sequence survives
+        @Indexed
+        private String owner;
+        // Units leased to the owner that it has not flushed as sold yet
+        private int lease;
+        // Last journal sequence of the owner applied to this item
+        private long seq;
+        // Units the owner's last claim added to the lease
+        private int granted;
+        private LocalDateTime renewedAt;
+    }
+    
+    public Optional<HotShare> hotShareOf(String owner) {
+        return hotShares == null
+                ? Optional.empty()
+                : hotShares.stream().filter(share -> owner.equals(share.getOwner())).findFirst();
+    }
+    
+    public int getAvailableQuantity() {
+        return quantity - reservedQuantity;
+    }
+    
+    // Units leased to the in-memory hot item counters of all owners
+    public int getLeasedQuantity() {
+        return hotShares == null ? 0 : hotShares.stream().mapToInt(HotShare::getLease).sum();
+    }
+    
+    // Update status based on available quantity
     public void updateStatus() {
-        if (quantity <= 0) {
-            this.status = InventoryStatus.OUT_OF_STOCK;
-        } else if (quantity <= 10) {
-            this.status = InventoryStatus.LOW_STOCK;
+        this.status = statusFor(getAvailableQuantity());
+    }
+    
+    public static InventoryStatus statusFor(int available) {
+        if (available <= 0) {
+            return InventoryStatus.OUT_OF_STOCK;
+        } else if (available <= 10) {
+            return InventoryStatus.LOW_STOCK;
         } else {
-            this.status = InventoryStatus.IN_STOCK;
+            return InventoryStatus.IN_STOCK;
         }
     }
 }
@@ -0,0 +1,39 @@
+package com.inventory.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Outcome of a reservation keyed by its reference, so a retried call replays the result instead of reserving twice
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "reservation_records")
+public class ReservationRecord {
+    
+    @Id
+    private String referenceId;
+    private RecordStatus status;
+    private List<String> insufficientProductIds;
+    // While IN_PROGRESS: once this passes, the call that claimed the record is presumed dead and may be replaced
+    private LocalDateTime leaseUntil;
+    private LocalDateTime createdAt;
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+    
+    public enum RecordStatus {
+        IN_PROGRESS,
+        RESERVED,
+        REJECTED,
+        // The reserved stock was given back, or the reference was released before anything was reserved for it
+        RELEASED
+    }
+}
@@ -0,0 +1,52 @@
+package com.inventory.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stock_holds")
+@CompoundIndex(name = "status_expires_at_idx", def = "{'status': 1, 'expiresAt': 1}")
+public class StockHold {
+    
+    @Id
+    private String id;
+    @Indexed
+    private String referenceId;
+    private List<HoldLine> items;
+    private HoldStatus status;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    public enum HoldStatus {
+        HELD,
+        COMMITTED,
+        RELEASED,
+        EXPIRED,
+        REJECTED,
+        // Committed, then given back to stock because the order was cancelled
+        RESTOCKED
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HoldLine {
+        
+        private String productId;
+        private int quantity;
+    }
+}
@@ -1,13 +1,17 @@
 package com.inventory.inventory.repository;
 
 import com.inventory.inventory.model.InventoryItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface InventoryRepository extends MongoRepository<InventoryItem, String> {
+public interface InventoryRepository extends MongoRepository<InventoryItem, String>, InventoryRepositoryCustom {
     
     List<InventoryItem> findByCategory(String category);
     
@@ -16,4 +20,13 @@ public interface InventoryRepository extends MongoRepository<InventoryItem, Stri
     List<InventoryItem> findByNameContainingIgnoreCase(String name);
     
     List<InventoryItem> findByQuantityLessThanEqual(int quantity);
+    
+    List<InventoryItem> findByHotTrue();
+    
+    List<InventoryItem> findByHotSharesOwner(String owner);
+    
+    List<InventoryItem> findByPendingReservationsAppliedAtBefore(LocalDateTime appliedAt, Pageable pageable);
+    
+    @Query("{}")
+    Stream<InventoryItem> streamAllBy();
 }
@@ -0,0 +1,69 @@
+package com.inventory.inventory.repository;
+
+import com.inventory.inventory.dto.InventoryImportReport;
+import com.inventory.inventory.dto.InventorySummaryResponse;
+import com.inventory.inventory.model.InventoryItem;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface InventoryRepositoryCustom {
+    
+    // Keyset page ordered by _id; afterId is exclusive and null for the first page
+    List<InventoryItem> findPageAfter(String afterId, int limit);
+    
+    // Atomically subtracts quantity only if enough stock is available; empty if the guard did not match
+    Optional<InventoryItem> decrementQuantity(String id, int quantity);
+    
+    // Decrements every item in one bulkWrite; either all lines are applied or none are.
+    // Lines in fromShare are taken out of shareOwner's hot share instead of the unallocated stock.
+    boolean decrementAll(String reservationId, Map<String, Integer> quantities, String shareOwner,
+                         Set<String> fromShare);
+    
+    // Moves available stock into reservedQuantity for every item, all-or-nothing
+    boolean holdAll(String holdId, Map<String, Integer> quantities, String shareOwner, Set<String> fromShare);
+    
+    // Turns held stock into a real decrement of the on-hand quantity
+    void commitHeld(Map<String, Integer> quantities);
+    
+    // Returns held stock to the available pool
+    void releaseHeld(Map<String, Integer> quantities);
+    
+    // Adds stock that was committed or reserved back to the on-hand quantity
+    void restock(Map<String, Integer> quantities);
+    
+    // Flags the item as hot; every instance then claims its own share of the stock
+    Optional<InventoryItem> markHot(String id);
+    
+    // Clears the hot flag; each owner flushes and releases its share when it notices
+    Optional<InventoryItem> unmarkHot(String id);
+    
+    // Tops the owner's share up towards target from unallocated stock and renews it; empty unless the item is hot
+    Optional<InventoryItem> claimHotShare(String id, String owner, int target);
+    
+    // Applies a coalesced delta of the owner's counter unless that owner already applied a sequence at or beyond it,
+    // or the on-hand quantity cannot cover it
+    Optional<InventoryItem> applyHotDelta(String id, String owner, int consumed, long sequence);
+    
+    // Hands the owner's leased stock back to the regular paths
+    void releaseHotShare(String id, String owner);
+    
+    // Counts the items holding a share of another owner that has not been renewed within expiry
+    long countExpiredHotShares(String owner, Duration expiry);
+    
+    // Releases shareOwner's share if it has not been renewed within expiry; false if there is no such share
+    boolean releaseExpiredHotShare(String id, String shareOwner, Duration expiry);
+    
+    // Item count, units and stock value per (category, status), computed by the server
+    List<InventorySummaryResponse.BucketTotals> aggregateBucketTotals();
+    
+    // Upserts catalogue rows by ObjectId-shaped id in one unordered bulkWrite; hot items are rejected rather than
+    // overwritten
+    InventoryImportReport.ChunkResult upsertAll(List<InventoryItem> items);
+    
+    // Undoes one abandoned batch line and drops its marker; empty if the marker is already gone
+    Optional<InventoryItem> rollbackPendingReservation(String id, InventoryItem.PendingReservation marker);
+}
@@ -0,0 +1,441 @@
+package com.inventory.inventory.repository;
+
+import com.inventory.inventory.dto.InventoryImportReport;
+import com.inventory.inventory.dto.InventorySummaryResponse;
+import com.inventory.inventory.model.InventoryItem;
+import com.inventory.inventory.model.Money;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class InventoryRepositoryImpl implements InventoryRepositoryCustom {
+    
+    private static final int LOW_STOCK_THRESHOLD = 10;
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public List<InventoryItem> findPageAfter(String afterId, int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(afterId));
+        }
+        return mongoTemplate.find(query, InventoryItem.class);
+    }
+    
+    @Override
+    public Optional<InventoryItem> decrementQuantity(String id, int quantity) {
+        return findOneAndUpdate(
+                Filters.and(Filters.eq("_id", mongoId(id)), availableAtLeast(quantity)),
+                adjustmentPipeline(-quantity, 0, new Date(), null));
+    }
+    
+    @Override
+    public boolean decrementAll(String reservationId, Map<String, Integer> quantities, String shareOwner,
+                                Set<String> fromShare) {
+        return applyAllOrNothing(reservationId, quantities, -1, 0, shareOwner, fromShare);
+    }
+    
+    @Override
+    public boolean holdAll(String holdId, Map<String, Integer> quantities, String shareOwner, Set<String> fromShare) {
+        return applyAllOrNothing(holdId, quantities, 0, 1, shareOwner, fromShare);
+    }
+    
+    @Override
+    public void commitHeld(Map<String, Integer> quantities) {
+        applyUnconditionally(quantities, -1, -1);
+    }
+    
+    @Override
+    public void releaseHeld(Map<String, Integer> quantities) {
+        applyUnconditionally(quantities, 0, -1);
+    }
+    
+    @Override
+    public void restock(Map<String, Integer> quantities) {
+        applyUnconditionally(quantities, 1, 0);
+    }
+    
+    @Override
+    public Optional<InventoryItem> markHot(String id) {
+        return setHot(id, true);
+    }
+    
+    @Override
+    public Optional<InventoryItem> unmarkHot(String id) {
+        return setHot(id, false);
+    }
+    
+    @Override
+    public Optional<InventoryItem> claimHotShare(String id, String owner, int target) {
+        Document emptyShare = new Document()
+                .append("owner", owner)
+                .append("lease", 0)
+                .append("seq", 0L)
+                .append("granted", 0);
+        Document withOwnShare = new Document("$cond", Arrays.asList(
+                new Document("$in", Arrays.asList(literal(owner),
+                        new Document("$ifNull", Arrays.asList("$hotShares.owner", Collections.emptyList())))),
+                "$hotShares",
+                new Document("$concatArrays", Arrays.asList(
+                        new Document("$ifNull", Arrays.asList("$hotShares", Collections.emptyList())),
+                        Collections.singletonList(literal(emptyShare))))));
+        // Only stock that neither the regular paths nor another share hold can be granted
+        Document grant = new Document("$max", Arrays.asList(0, new Document("$min", Arrays.asList(
+                new Document("$subtract", Arrays.asList(target, "$$this.lease")), unallocatedExpression()))));
+        List<Document> pipeline = Arrays.asList(
+                new Document("$set", new Document("hotShares", withOwnShare)),
+                new Document("$set", new Document()
+                        .append("hotShares", updateShare(owner, new Document()
+                                .append("lease", new Document("$add", Arrays.asList("$$this.lease", grant)))
+                                .append("granted", grant)
+                                .append("renewedAt", new Date())))
+                        .append("version", nextVersionExpression())));
+        return findOneAndUpdate(Filters.and(Filters.eq("_id", mongoId(id)), Filters.eq("hot", true)), pipeline);
+    }
+    
+    @Override
+    public Optional<InventoryItem> applyHotDelta(String id, String owner, int consumed, long sequence) {
+        // The sequence guard makes journal replay idempotent: a delta already flushed is never applied twice
+        Date now = new Date();
+        List<Document> pipeline = Arrays.asList(
+                new Document("$set", new Document()
+                        .append("quantity", new Document("$subtract", Arrays.asList("$quantity", consumed)))
+                        .append("hotShares", updateShare(owner, new Document()
+                                .append("lease", new Document("$max", Arrays.asList(0,
+                                        new Document("$subtract", Arrays.asList("$$this.lease", consumed)))))
+                                .append("seq", sequence)
+                                .append("renewedAt", now)))
+                        .append("version", nextVersionExpression())
+                        .append("updatedAt", now)),
+                new Document("$set", new Document("status", statusExpression())));
+        return findOneAndUpdate(
+                Filters.and(
+                        Filters.eq("_id", mongoId(id)),
+                        Filters.elemMatch("hotShares", Filters.and(
+                                Filters.eq("owner", owner), Filters.lt("seq", sequence))),
+                        Filters.gte("quantity", consumed)),
+                pipeline);
+    }
+    
+    @Override
+    public InventoryImportReport.ChunkResult upsertAll(List<InventoryItem> items) {
+        Date now = new Date();
+        List<WriteModel<Document>> upserts = new ArrayList<>(items.size());
+        for (InventoryItem item : items) {
+            // Callers pass ObjectId-shaped ids only; a string _id would sort outside the keyset pages
+            ObjectId id = item.getId() != null ? new ObjectId(item.getId()) : new ObjectId();
+            // A hot item fails the filter, and the upsert then collides with its _id instead of overwriting it
+            upserts.add(new UpdateOneModel<>(
+                    Filters.and(Filters.eq("_id", id), Filters.ne("hot", true)),
+                    importPipeline(item, now),
+                    new UpdateOptions().upsert(true)));
+        }
+        
+        Map<Integer, String> failures = new HashMap<>();
+        BulkWriteResult result;
+        try {
+            result = inventoryCollection().bulkWrite(upserts, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            result = e.getWriteResult();
+            for (BulkWriteError error : e.getWriteErrors()) {
+                boolean hotItem = ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY;
+                failures.put(error.getIndex(), hotItem
+                        ? "Item is in hot item mode and cannot be imported"
+                        : error.getMessage());
+            }
+        }
+        return InventoryImportReport.ChunkResult.builder()
+                .inserted(result.getUpserts().size())
+                .updated(result.getMatchedCount())
+                .failures(failures)
+                .build();
+    }
+    
+    @Override
+    public Optional<InventoryItem> rollbackPendingReservation(String id, InventoryItem.PendingReservation marker) {
+        int quantity = Math.abs(marker.getQuantityDelta()) + Math.abs(marker.getReservedDelta());
+        return findOneAndUpdate(
+                Filters.and(Filters.eq("_id", mongoId(id)), Filters.eq("pendingReservations.token", marker.getToken())),
+                adjustmentPipeline(-marker.getQuantityDelta(), -marker.getReservedDelta(), new Date(),
+                        removeReservation(marker.getToken()), marker.getShareOwner(), quantity));
+    }
+    
+    @Override
+    public void releaseHotShare(String id, String owner) {
+        inventoryCollection().updateOne(
+                Filters.and(Filters.eq("_id", mongoId(id)), Filters.eq("hotShares.owner", owner)),
+                Updates.combine(Updates.set("hotShares.$.lease", 0), Updates.inc("version", 1L)));
+    }
+    
+    @Override
+    public long countExpiredHotShares(String owner, Duration expiry) {
+        Date renewedBefore = new Date(System.currentTimeMillis() - expiry.toMillis());
+        return inventoryCollection().countDocuments(Filters.elemMatch("hotShares", Filters.and(
+                Filters.ne("owner", owner), Filters.lt("renewedAt", renewedBefore), Filters.gt("lease", 0))));
+    }
+    
+    @Override
+    public boolean releaseExpiredHotShare(String id, String shareOwner, Duration expiry) {
+        Date renewedBefore = new Date(System.currentTimeMillis() - expiry.toMillis());
+        return inventoryCollection().updateOne(
+                Filters.and(Filters.eq("_id", mongoId(id)), Filters.elemMatch("hotShares", Filters.and(
+                        Filters.eq("owner", shareOwner), Filters.lt("renewedAt", renewedBefore),
+                        Filters.gt("lease", 0)))),
+                Updates.combine(Updates.set("hotShares.$.lease", 0), Updates.inc("version", 1L)))
+                .getModifiedCount() == 1;
+    }
+    
+    @Override
+    public List<InventorySummaryResponse.BucketTotals> aggregateBucketTotals() {
+        // Prices are Money, so stock value sums exactly in minor units
+        Document group = new Document("$group", new Document()
+                .append("_id", new Document("category", "$category").append("status", "$status"))
+                .append("itemCount", new Document("$sum", 1))
+                .append("units", new Document("$sum", "$quantity"))
+                .append("stockValue", new Document("$sum", new Document("$multiply", Arrays.asList(
+                        "$quantity", "$price.minorUnits")))));
+        
+        List<InventorySummaryResponse.BucketTotals> totals = new ArrayList<>();
+        for (Document bucket : inventoryCollection().aggregate(Collections.singletonList(group))) {
+            Document key = bucket.get("_id", Document.class);
+            String status = key.getString("status");
+            totals.add(InventorySummaryResponse.BucketTotals.builder()
+                    .category(key.getString("category"))
+                    .status(status == null ? null : InventoryItem.InventoryStatus.valueOf(status))
+                    .itemCount(((Number) bucket.get("itemCount")).longValue())
+                    .units(((Number) bucket.get("units")).longValue())
+                    .stockValue(Money.ofMinor(((Number) bucket.get("stockValue")).longValue()).toBigDecimal())
+                    .build());
+        }
+        return totals;
+    }
+    
+    private Optional<InventoryItem> setHot(String id, boolean hot) {
+        return findOneAndUpdate(Filters.eq("_id", mongoId(id)), Collections.singletonList(
+                new Document("$set", new Document()
+                        .append("hot", hot)
+                        .append("version", nextVersionExpression()))));
+    }
+    
+    private Optional<InventoryItem> findOneAndUpdate(Bson filter, List<Document> pipeline) {
+        Document updated = inventoryCollection().findOneAndUpdate(
+                filter,
+                pipeline,
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+        return Optional.ofNullable(updated)
+                .map(document -> mongoTemplate.getConverter().read(InventoryItem.class, document));
+    }
+    
+    // Guarded bulk adjustment: every line must see enough available stock or the applied lines are undone.
+    // A crash before the markers are cleared leaves them behind for InventoryService.rollBackAbandonedReservations.
+    private boolean applyAllOrNothing(String reservationId, Map<String, Integer> quantities,
+                                      int quantitySign, int reservedSign, String shareOwner, Set<String> fromShare) {
+        MongoCollection<Document> collection = inventoryCollection();
+        Date now = new Date();
+        String token = UUID.randomUUID().toString();
+        
+        List<WriteModel<Document>> adjustments = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> {
+            String lineOwner = fromShare.contains(id) ? shareOwner : null;
+            // A line served from a hot share is guarded by that share's lease instead of the unallocated stock
+            Bson guard = lineOwner != null
+                    ? Filters.elemMatch("hotShares", Filters.and(
+                            Filters.eq("owner", lineOwner), Filters.gte("lease", quantity)))
+                    : availableAtLeast(quantity);
+            adjustments.add(new UpdateOneModel<>(
+                    Filters.and(Filters.eq("_id", mongoId(id)), guard),
+                    adjustmentPipeline(quantitySign * quantity, reservedSign * quantity, now, appendReservation(
+                            new Document("token", token)
+                                    .append("reservationId", reservationId)
+                                    .append("quantityDelta", quantitySign * quantity)
+                                    .append("reservedDelta", reservedSign * quantity)
+                                    .append("shareOwner", lineOwner)
+                                    .append("appliedAt", now)), lineOwner, -quantity)));
+        });
+        
+        BulkWriteResult result = collection.bulkWrite(adjustments, new BulkWriteOptions().ordered(false));
+        if (result.getModifiedCount() == quantities.size()) {
+            collection.updateMany(
+                    Filters.and(
+                            Filters.in("_id", mongoIds(quantities.keySet())),
+                            Filters.eq("pendingReservations.token", token)),
+                    Updates.combine(
+                            Updates.pull("pendingReservations", new Document("token", token)),
+                            Updates.inc("version", 1L)));
+            return true;
+        }
+        
+        // Some guards did not match: give back exactly the lines that carry this attempt's marker
+        List<WriteModel<Document>> rollbacks = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> rollbacks.add(new UpdateOneModel<>(
+                Filters.and(Filters.eq("_id", mongoId(id)), Filters.eq("pendingReservations.token", token)),
+                adjustmentPipeline(-quantitySign * quantity, -reservedSign * quantity, now,
+                        removeReservation(token), fromShare.contains(id) ? shareOwner : null, quantity))));
+        collection.bulkWrite(rollbacks, new BulkWriteOptions().ordered(false));
+        return false;
+    }
+    
+    private void applyUnconditionally(Map<String, Integer> quantities, int quantitySign, int reservedSign) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        List<WriteModel<Document>> adjustments = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> adjustments.add(new UpdateOneModel<>(
+                Filters.eq("_id", mongoId(id)),
+                adjustmentPipeline(quantitySign * quantity, reservedSign * quantity, now, null))));
+        inventoryCollection().bulkWrite(adjustments, new BulkWriteOptions().ordered(false));
+    }
+    
+    private MongoCollection<Document> inventoryCollection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(InventoryItem.class));
+    }
+    
+    private static Bson availableAtLeast(int quantity) {
+        return Filters.expr(new Document("$gte", Arrays.asList(unallocatedExpression(), quantity)));
+    }
+    
+    private static List<Document> adjustmentPipeline(int quantityDelta, int reservedDelta, Date now,
+                                                     Document pendingReservations) {
+        return adjustmentPipeline(quantityDelta, reservedDelta, now, pendingReservations, null, 0);
+    }
+    
+    // Two pipeline stages so the status is derived from the already adjusted quantities
+    private static List<Document> adjustmentPipeline(int quantityDelta, int reservedDelta, Date now,
+                                                     Document pendingReservations, String shareOwner, int leaseDelta) {
+        Document quantityFields = new Document()
+                .append("quantity", new Document("$add", Arrays.asList("$quantity", quantityDelta)))
+                .append("reservedQuantity", new Document("$add", Arrays.asList(
+                        new Document("$ifNull", Arrays.asList("$reservedQuantity", 0)), reservedDelta)))
+                .append("version", nextVersionExpression())
+                .append("updatedAt", now);
+        if (shareOwner != null) {
+            quantityFields.append("hotShares", updateShare(shareOwner, new Document("lease",
+                    new Document("$add", Arrays.asList("$$this.lease", leaseDelta)))));
+        }
+        Document quantityStage = new Document("$set", quantityFields);
+        Document statusFields = new Document("status", statusExpression());
+        if (pendingReservations != null) {
+            statusFields.append("pendingReservations", pendingReservations);
+        }
+        return Arrays.asList(quantityStage, new Document("$set", statusFields));
+    }
+    
+    // Raw updates bump the @Version field too, so a stale whole-document save fails instead of undoing them
+    private static Document nextVersionExpression() {
+        return new Document("$add", Arrays.asList(new Document("$ifNull", Arrays.asList("$version", 0L)), 1L));
+    }
+    
+    // Catalogue fields are replaced; stock bookkeeping and creation metadata survive on existing items
+    private List<Document> importPipeline(InventoryItem item, Date now) {
+        // Supplier text is wrapped in $literal so values starting with '$' are not read as field paths
+        Document fields = new Document()
+                .append("name", literal(item.getName()))
+                .append("category", literal(item.getCategory()))
+                .append("description", literal(item.getDescription()))
+                .append("quantity", item.getQuantity())
+                .append("price", literal(mongoTemplate.getConverter().convertToMongoType(item.getPrice())))
+                .append("reservedQuantity", new Document("$ifNull", Arrays.asList("$reservedQuantity", 0)))
+                .append("hot", new Document("$ifNull", Arrays.asList("$hot", false)))
+                .append("createdBy", new Document("$ifNull", Arrays.asList("$createdBy", item.getCreatedBy())))
+                .append("createdAt", new Document("$ifNull", Arrays.asList("$createdAt", now)))
+                .append("updatedAt", now)
+                .append("version", nextVersionExpression());
+        return Arrays.asList(
+                new Document("$set", fields),
+                new Document("$set", new Document("status", statusExpression())));
+    }
+    
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+    
+    private static Document availableExpression() {
+        return new Document("$subtract", Arrays.asList(
+                "$quantity", new Document("$ifNull", Arrays.asList("$reservedQuantity", 0))));
+    }
+    
+    // Available stock not leased to the in-memory hot item counters
+    private static Document unallocatedExpression() {
+        return new Document("$subtract", Arrays.asList(
+                availableExpression(), new Document("$sum", "$hotShares.lease")));
+    }
+    
+    // Rewrites the given owner's entry of hotShares and leaves the others alone
+    private static Document updateShare(String owner, Document changes) {
+        return new Document("$map", new Document()
+                .append("input", new Document("$ifNull", Arrays.asList("$hotShares", Collections.emptyList())))
+                .append("in", new Document("$cond", Arrays.asList(
+                        new Document("$eq", Arrays.asList("$$this.owner", literal(owner))),
+                        new Document("$mergeObjects", Arrays.asList("$$this", changes)),
+                        "$$this"))));
+    }
+    
+    // Server-side mirror of InventoryItem.updateStatus()
+    private static Document statusExpression() {
+        List<Document> branches = Arrays.asList(
+                new Document("case", new Document("$lte", Arrays.asList(availableExpression(), 0)))
+                        .append("then", InventoryItem.InventoryStatus.OUT_OF_STOCK.name()),
+                new Document("case", new Document("$lte", Arrays.asList(availableExpression(), LOW_STOCK_THRESHOLD)))
+                        .append("then", InventoryItem.InventoryStatus.LOW_STOCK.name()));
+        return new Document("$switch", new Document()
+                .append("branches", branches)
+                .append("default", InventoryItem.InventoryStatus.IN_STOCK.name()));
+    }
+    
+    private static Document appendReservation(Document marker) {
+        return new Document("$concatArrays", Arrays.asList(
+                new Document("$ifNull", Arrays.asList("$pendingReservations", Collections.emptyList())),
+                Collections.singletonList(literal(marker))));
+    }
+    
+    private static Document removeReservation(String token) {
+        return new Document("$filter", new Document()
+                .append("input", new Document("$ifNull", Arrays.asList(
+                        "$pendingReservations", Collections.emptyList())))
+                .append("cond", new Document("$ne", Arrays.asList("$$this.token", token))));
+    }
+    
+    // Spring Data stores ObjectId-shaped String ids as ObjectId, so raw driver filters must do the same
+    static Object mongoId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+    
+    static List<Object> mongoIds(Iterable<String> ids) {
+        List<Object> converted = new ArrayList<>();
+        ids.forEach(id -> converted.add(mongoId(id)));
+        return converted;
+    }
+}
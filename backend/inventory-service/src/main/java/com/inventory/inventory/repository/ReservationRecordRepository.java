@@ -0,0 +1,10 @@
+package com.inventory.inventory.repository;
+
+import com.inventory.inventory.model.ReservationRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReservationRecordRepository extends MongoRepository<ReservationRecord, String>,
+        ReservationRecordRepositoryCustom {
+}
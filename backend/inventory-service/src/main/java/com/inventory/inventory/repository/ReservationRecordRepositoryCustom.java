@@ -0,0 +1,15 @@
+package com.inventory.inventory.repository;
+
+import com.inventory.inventory.model.ReservationRecord;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ReservationRecordRepositoryCustom {
+    
+    // Claims an IN_PROGRESS record whose lease has run out; false while its current owner may still be working
+    boolean takeOver(String referenceId, LocalDateTime now, LocalDateTime leaseUntil);
+    
+    // Moves a RESERVED record to RELEASED; empty if it is in any other state, so stock is given back at most once
+    Optional<ReservationRecord> markReleased(String referenceId, LocalDateTime expiresAt);
+}
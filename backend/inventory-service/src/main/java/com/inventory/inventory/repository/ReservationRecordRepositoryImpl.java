@@ -0,0 +1,39 @@
+package com.inventory.inventory.repository;
+
+import com.inventory.inventory.model.ReservationRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class ReservationRecordRepositoryImpl implements ReservationRecordRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public boolean takeOver(String referenceId, LocalDateTime now, LocalDateTime leaseUntil) {
+        // Records written before leases existed have none and count as expired
+        Query query = Query.query(Criteria.where("_id").is(referenceId)
+                .and("status").is(ReservationRecord.RecordStatus.IN_PROGRESS)
+                .and("leaseUntil").not().gt(now));
+        return mongoTemplate.updateFirst(query, Update.update("leaseUntil", leaseUntil), ReservationRecord.class)
+                .getModifiedCount() == 1;
+    }
+    
+    @Override
+    public Optional<ReservationRecord> markReleased(String referenceId, LocalDateTime expiresAt) {
+        Query query = Query.query(Criteria.where("_id").is(referenceId)
+                .and("status").is(ReservationRecord.RecordStatus.RESERVED));
+        Update update = new Update()
+                .set("status", ReservationRecord.RecordStatus.RELEASED)
+                .set("expiresAt", expiresAt);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), ReservationRecord.class));
+    }
+}
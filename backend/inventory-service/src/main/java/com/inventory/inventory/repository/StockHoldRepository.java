@@ -0,0 +1,18 @@
+package com.inventory.inventory.repository;
+
+import com.inventory.inventory.model.StockHold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockHoldRepository extends MongoRepository<StockHold, String>, StockHoldRepositoryCustom {
+    
+    List<StockHold> findByStatusAndExpiresAtBefore(StockHold.HoldStatus status, LocalDateTime time, Pageable pageable);
+    
+    Optional<StockHold> findFirstByReferenceIdOrderByCreatedAtDesc(String referenceId);
+}
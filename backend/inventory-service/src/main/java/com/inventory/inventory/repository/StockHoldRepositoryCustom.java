@@ -0,0 +1,18 @@
+package com.inventory.inventory.repository;
+
+import com.inventory.inventory.model.StockHold;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface StockHoldRepositoryCustom {
+    
+    // Moves a HELD hold to COMMITTED only while it has not expired; empty if the hold is no longer open
+    Optional<StockHold> markCommitted(String id, LocalDateTime now);
+    
+    // Moves a HELD hold to RELEASED or EXPIRED; empty if another caller already closed it
+    Optional<StockHold> markClosed(String id, StockHold.HoldStatus status);
+    
+    // Moves a COMMITTED hold to RESTOCKED; empty if it was not committed or was already restocked
+    Optional<StockHold> markRestocked(String id);
+}
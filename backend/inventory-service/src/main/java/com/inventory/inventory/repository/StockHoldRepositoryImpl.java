@@ -0,0 +1,45 @@
+package com.inventory.inventory.repository;
+
+import com.inventory.inventory.model.StockHold;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class StockHoldRepositoryImpl implements StockHoldRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public Optional<StockHold> markCommitted(String id, LocalDateTime now) {
+        Criteria criteria = Criteria.where("_id").is(id)
+                .and("status").is(StockHold.HoldStatus.HELD)
+                .and("expiresAt").gt(now);
+        return transition(criteria, StockHold.HoldStatus.COMMITTED);
+    }
+    
+    @Override
+    public Optional<StockHold> markClosed(String id, StockHold.HoldStatus status) {
+        Criteria criteria = Criteria.where("_id").is(id).and("status").is(StockHold.HoldStatus.HELD);
+        return transition(criteria, status);
+    }
+    
+    @Override
+    public Optional<StockHold> markRestocked(String id) {
+        Criteria criteria = Criteria.where("_id").is(id).and("status").is(StockHold.HoldStatus.COMMITTED);
+        return transition(criteria, StockHold.HoldStatus.RESTOCKED);
+    }
+    
+    // The status guard makes each hold change state exactly once, so stock is never released twice
+    private Optional<StockHold> transition(Criteria criteria, StockHold.HoldStatus status) {
+        Update update = new Update()
+                .set("status", status)
+                .set("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(mongoTemplate.findAndModify(Query.query(criteria), update, StockHold.class));
+    }
+}
@@ -0,0 +1,180 @@
+package com.inventory.inventory.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Append-only log of hot item decrements that have not yet been flushed to Mongo.
+// Each line is "sequence,itemId,quantity"; sealed segments are named by the last sequence they may contain.
+@Slf4j
+class HotItemJournal {
+    
+    private static final String ACTIVE_SEGMENT = "journal.active";
+    private static final String SEALED_PREFIX = "journal.";
+    private static final String SEALED_SUFFIX = ".sealed";
+    
+    private final Path directory;
+    private FileChannel channel;
+    
+    HotItemJournal(Path directory) {
+        this.directory = directory;
+    }
+    
+    void open() {
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(directory.resolve(ACTIVE_SEGMENT),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open hot item journal in " + directory, e);
+        }
+    }
+    
+    // A completed write survives a process crash; force() in seal() covers an OS crash
+    void append(long sequence, String itemId, int quantity) {
+        byte[] line = (sequence + "," + itemId + "," + quantity + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to hot item journal", e);
+        }
+    }
+    
+    // Called with appends blocked: closes the active segment and starts a fresh one
+    void seal(long lastSequence) {
+        try {
+            channel.force(false);
+            channel.close();
+            Files.move(directory.resolve(ACTIVE_SEGMENT),
+                    directory.resolve(SEALED_PREFIX + lastSequence + SEALED_SUFFIX),
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to seal hot item journal", e);
+        } finally {
+            open();
+        }
+    }
+    
+    // Sealed segments whose deltas are all in Mongo are no longer needed for recovery
+    void discardUpTo(long sequence) {
+        for (Path segment : sealedSegments()) {
+            if (sealedSequence(segment) <= sequence) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    log.warn("Failed to delete hot item journal segment {}: {}", segment, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    List<Entry> readAll() {
+        List<Path> segments = sealedSegments();
+        segments.add(directory.resolve(ACTIVE_SEGMENT));
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segments) {
+            if (!Files.exists(segment)) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Entry entry = Entry.parse(line);
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read hot item journal segment " + segment, e);
+            }
+        }
+        return entries;
+    }
+    
+    void close() {
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close hot item journal: {}", e.getMessage());
+        }
+    }
+    
+    private List<Path> sealedSegments() {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEALED_PREFIX + "*" + SEALED_SUFFIX)) {
+            stream.forEach(segments::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list hot item journal segments", e);
+        }
+        segments.sort((a, b) -> Long.compare(sealedSequence(a), sealedSequence(b)));
+        return segments;
+    }
+    
+    private static long sealedSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEALED_PREFIX.length(), name.length() - SEALED_SUFFIX.length()));
+    }
+    
+    static class Entry {
+        
+        final long sequence;
+        final String itemId;
+        final int quantity;
+        
+        Entry(long sequence, String itemId, int quantity) {
+            this.sequence = sequence;
+            this.itemId = itemId;
+            this.quantity = quantity;
+        }
+        
+        // A torn last line from a crash mid-write is skipped: its decrement was never acknowledged
+        static Entry parse(String line) {
+            String[] parts = line.split(",");
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(parts[0]), parts[1], Integer.parseInt(parts[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+    
+    // Per-item sums and highest sequence of the entries a given item has not yet applied
+    static Map<String, long[]> pendingByItem(List<Entry> entries, Map<String, Long> appliedSequences) {
+        Map<String, long[]> pending = new HashMap<>();
+        for (Entry entry : entries) {
+            long applied = appliedSequences.getOrDefault(entry.itemId, Long.MAX_VALUE);
+            if (entry.sequence > applied) {
+                long[] totals = pending.computeIfAbsent(entry.itemId, id -> new long[2]);
+                totals[0] += entry.quantity;
+                totals[1] = Math.max(totals[1], entry.sequence);
+            }
+        }
+        return pending;
+    }
+}
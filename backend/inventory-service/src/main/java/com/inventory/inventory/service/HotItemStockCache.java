@@ -0,0 +1,378 @@
+package com.inventory.inventory.service;
+
+import com.inventory.inventory.exception.InventoryNotFoundException;
+import com.inventory.inventory.model.InventoryItem;
+import com.inventory.inventory.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Keeps authoritative stock counters in memory for flagged SKUs during flash sales.
+// Every instance leases its own share of the item's stock in Mongo, tagged with its owner id, so neither the regular
+// Mongo paths nor another instance can sell the same units. Sales from the counter are journaled locally and flushed
+// to Mongo as one coalesced delta per item; the share is topped up from unallocated stock as it runs low.
+// The journal must live on a volume that survives restarts and belongs to this owner id alone.
+@Component
+@Slf4j
+public class HotItemStockCache {
+    
+    private final InventoryRepository inventoryRepository;
+    private final InventorySummaryCounters summaryCounters;
+    private final boolean enabled;
+    private final String owner;
+    private final int shareSize;
+    private final Duration shareExpiry;
+    private final HotItemJournal journal;
+    
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Decrements share the read lock; the flusher takes the write lock only to snapshot deltas and seal the journal
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    
+    public HotItemStockCache(InventoryRepository inventoryRepository,
+                             InventorySummaryCounters summaryCounters,
+                             @Value("${inventory.hot-items.enabled:false}") boolean enabled,
+                             @Value("${inventory.hot-items.owner-id:${HOSTNAME:local}}") String owner,
+                             @Value("${inventory.hot-items.share-size:100}") int shareSize,
+                             @Value("${inventory.hot-items.share-expiry-ms:600000}") long shareExpiryMs,
+                             @Value("${inventory.hot-items.journal-dir:./data/hot-item-journal}") String journalDir) {
+        this.inventoryRepository = inventoryRepository;
+        this.summaryCounters = summaryCounters;
+        this.enabled = enabled;
+        this.owner = owner;
+        this.shareSize = shareSize;
+        this.shareExpiry = Duration.ofMillis(shareExpiryMs);
+        this.journal = new HotItemJournal(Paths.get(journalDir));
+    }
+    
+    @PostConstruct
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Long> appliedSequences = new HashMap<>();
+        inventoryRepository.findByHotSharesOwner(owner).forEach(item -> item.hotShareOf(owner)
+                .ifPresent(share -> appliedSequences.put(item.getId(), share.getSeq())));
+        
+        List<HotItemJournal.Entry> entries = journal.readAll();
+        long lastSequence = entries.stream().mapToLong(entry -> entry.sequence).max().orElse(0L);
+        for (long seq : appliedSequences.values()) {
+            lastSequence = Math.max(lastSequence, seq);
+        }
+        
+        // Replay decrements acknowledged before the crash but never flushed
+        HotItemJournal.pendingByItem(entries, appliedSequences).forEach((itemId, totals) -> {
+            log.info("Replaying {} journaled unit(s) for hot item ID: {}", totals[0], itemId);
+            Optional<InventoryItem> replayed = inventoryRepository.applyHotDelta(
+                    itemId, owner, (int) totals[0], totals[1]);
+            if (replayed.isPresent()) {
+                recordConsumed(replayed.get(), (int) totals[0]);
+            } else {
+                log.error("Hot item ID: {} has fewer units on hand than the {} journaled as sold", itemId, totals[0]);
+            }
+        });
+        journal.discardUpTo(lastSequence);
+        sequence.set(lastSequence);
+        
+        // Whatever is still leased to this owner carries over to its new counters
+        journal.open();
+        for (InventoryItem item : inventoryRepository.findByHotSharesOwner(owner)) {
+            int lease = item.hotShareOf(owner).map(InventoryItem.HotShare::getLease).orElse(0);
+            if (item.isHot()) {
+                counters.put(item.getId(), new Counter(lease));
+            } else if (lease > 0) {
+                inventoryRepository.releaseHotShare(item.getId(), owner);
+            }
+        }
+        sync();
+        log.info("Hot item mode enabled as {} with {} item(s)", owner, counters.size());
+    }
+    
+    public boolean isHot(String id) {
+        return enabled && counters.containsKey(id);
+    }
+    
+    // Other instances claim their shares on their next sync
+    public void markHot(String id) {
+        if (!enabled) {
+            throw new IllegalStateException("Hot item mode is disabled");
+        }
+        inventoryRepository.markHot(id)
+                .orElseThrow(() -> new InventoryNotFoundException("Inventory item not found with ID: " + id));
+        Counter counter = counters.computeIfAbsent(id, key -> new Counter(0));
+        refill(id, counter, 0);
+        log.info("Inventory item ID: {} is now hot with {} unit(s) in this instance's share", id,
+                counter.available.get());
+    }
+    
+    // Other instances flush and release their shares on their next sync
+    public void unmarkHot(String id) {
+        inventoryRepository.unmarkHot(id)
+                .orElseThrow(() -> new InventoryNotFoundException("Inventory item not found with ID: " + id));
+        retire(id);
+        log.info("Inventory item ID: {} is no longer hot", id);
+    }
+    
+    public String owner() {
+        return owner;
+    }
+    
+    // Lock-free guarded decrement. Empty when the item has no counter (it was never hot, or was retired by a
+    // concurrent sync), so the caller goes to Mongo; an empty OptionalInt when the share cannot cover the request
+    // even after a refill
+    public Optional<OptionalInt> tryDecrement(String id, int quantity) {
+        flushLock.readLock().lock();
+        try {
+            Counter counter = enabled ? counters.get(id) : null;
+            if (counter == null) {
+                return Optional.empty();
+            }
+            int remaining = counter.take(quantity);
+            if (remaining < 0 && refill(id, counter, quantity)) {
+                remaining = counter.take(quantity);
+            }
+            if (remaining < 0) {
+                return Optional.of(OptionalInt.empty());
+            }
+            
+            try {
+                journal.append(sequence.incrementAndGet(), id, quantity);
+            } catch (RuntimeException e) {
+                counter.available.addAndGet(quantity);
+                throw e;
+            }
+            counter.unflushed.addAndGet(quantity);
+            return Optional.of(OptionalInt.of(remaining));
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+    
+    // Sets aside the hot lines of a batch, all-or-nothing; the batch write then moves them out of this owner's share
+    // in Mongo. Empty when a hot line cannot be covered.
+    public Optional<Set<String>> take(Map<String, Integer> quantities) {
+        Map<String, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            Counter counter = enabled ? counters.get(line.getKey()) : null;
+            if (counter == null) {
+                continue;
+            }
+            int quantity = line.getValue();
+            if (counter.take(quantity) < 0
+                    && !(refill(line.getKey(), counter, quantity) && counter.take(quantity) >= 0)) {
+                giveBack(taken, taken.keySet());
+                return Optional.empty();
+            }
+            taken.put(line.getKey(), quantity);
+        }
+        return Optional.of(taken.keySet());
+    }
+    
+    // Returns lines set aside by take() whose batch write was rejected
+    public void giveBack(Map<String, Integer> quantities, Set<String> ids) {
+        ids.forEach(id -> {
+            Counter counter = counters.get(id);
+            if (counter != null) {
+                counter.available.addAndGet(quantities.get(id));
+            }
+        });
+    }
+    
+    // Units this instance can still sell without going back to Mongo
+    public int available(String id) {
+        Counter counter = counters.get(id);
+        return counter == null ? 0 : counter.available.get();
+    }
+    
+    // Units sold from memory that Mongo does not reflect yet
+    public int unflushed(String id) {
+        Counter counter = counters.get(id);
+        return counter == null ? 0 : counter.unflushed.get();
+    }
+    
+    @Scheduled(fixedDelayString = "${inventory.hot-items.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (!enabled || counters.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> snapshot = new HashMap<>();
+        long flushSequence;
+        flushLock.writeLock().lock();
+        try {
+            flushSequence = sequence.incrementAndGet();
+            counters.forEach((id, counter) -> snapshot.put(id, counter.unflushed.getAndSet(0)));
+            journal.seal(flushSequence);
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+        
+        boolean complete = true;
+        for (Map.Entry<String, Integer> entry : snapshot.entrySet()) {
+            String id = entry.getKey();
+            int consumed = entry.getValue();
+            Counter counter = counters.get(id);
+            if (consumed > 0 && !applyConsumed(id, consumed, flushSequence)) {
+                if (counter != null) {
+                    counter.unflushed.addAndGet(consumed);
+                }
+                complete = false;
+            }
+            // Refilled ahead of time so the request path rarely has to wait for Mongo
+            if (counter != null && counter.available.get() < shareSize / 2) {
+                refill(id, counter, 0);
+            }
+        }
+        
+        // A failed item keeps its sealed segments until a later flush covers them with a higher sequence
+        if (complete) {
+            journal.discardUpTo(flushSequence);
+        }
+    }
+    
+    // Picks up items flagged or unflagged through other instances and renews this owner's shares. The share of an
+    // instance that stopped renewing is left leased: units it sold but never flushed are only in its journal, and
+    // freeing them here would let them be sold twice. It comes back under the same owner id, replays the journal
+    // and carries on with its share; an owner that is gone for good is released through releaseExpiredShare.
+    @Scheduled(fixedDelayString = "${inventory.hot-items.sync-interval-ms:5000}")
+    public synchronized void sync() {
+        if (!enabled) {
+            return;
+        }
+        Set<String> hotIds = new HashSet<>();
+        for (InventoryItem item : inventoryRepository.findByHotTrue()) {
+            hotIds.add(item.getId());
+            refill(item.getId(), counters.computeIfAbsent(item.getId(), id -> new Counter(0)), 0);
+        }
+        for (String id : new ArrayList<>(counters.keySet())) {
+            if (!hotIds.contains(id)) {
+                retire(id);
+            }
+        }
+        
+        long expired = inventoryRepository.countExpiredHotShares(owner, shareExpiry);
+        if (expired > 0) {
+            log.warn("{} item(s) hold hot item shares of owners that stopped renewing them", expired);
+        }
+    }
+    
+    // For an owner whose journal is lost: its share goes back to the regular paths, and units it sold without
+    // flushing them are no longer counted against the stock
+    public void releaseExpiredShare(String id, String shareOwner) {
+        if (owner.equals(shareOwner)) {
+            throw new IllegalArgumentException("This instance owns the share; unmark the item instead");
+        }
+        if (!inventoryRepository.releaseExpiredHotShare(id, shareOwner, shareExpiry)) {
+            throw new IllegalStateException("Inventory item ID: " + id + " has no expired hot share of owner "
+                    + shareOwner);
+        }
+        log.warn("Released the expired hot share of owner {} on item ID: {}; its unflushed sales are lost",
+                shareOwner, id);
+    }
+    
+    // Drops the counter, flushes what it sold and hands the rest of its share back to the regular paths
+    private synchronized void retire(String id) {
+        Counter removed;
+        flushLock.writeLock().lock();
+        try {
+            removed = counters.remove(id);
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+        if (removed == null) {
+            return;
+        }
+        int consumed = removed.unflushed.get();
+        if (consumed > 0) {
+            applyConsumed(id, consumed, sequence.incrementAndGet());
+        }
+        inventoryRepository.releaseHotShare(id, owner);
+    }
+    
+    // Tops the share up to share-size, or further when one request needs more; unflushed units still count
+    // against the lease in Mongo until they are flushed
+    private boolean refill(String id, Counter counter, int needed) {
+        synchronized (counter) {
+            int target = Math.max(shareSize, needed) + counter.unflushed.get();
+            int granted = inventoryRepository.claimHotShare(id, owner, target)
+                    .flatMap(item -> item.hotShareOf(owner))
+                    .map(InventoryItem.HotShare::getGranted)
+                    .orElse(0);
+            counter.available.addAndGet(granted);
+            return granted > 0;
+        }
+    }
+    
+    private boolean applyConsumed(String id, int consumed, long flushSequence) {
+        try {
+            Optional<InventoryItem> applied = inventoryRepository.applyHotDelta(id, owner, consumed, flushSequence);
+            if (applied.isPresent()) {
+                recordConsumed(applied.get(), consumed);
+                return true;
+            }
+            log.error("Hot item ID: {} has fewer units on hand than the {} sold from memory; retrying on next flush",
+                    id, consumed);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush hot item ID: {}: {}", id, e.getMessage());
+        }
+        return false;
+    }
+    
+    private void recordConsumed(InventoryItem item, int consumed) {
+        summaryCounters.record(
+                InventorySummaryCounters.Contribution.beforeAdjustment(item, -consumed, 0),
+                InventorySummaryCounters.Contribution.of(item));
+    }
+    
+    // Shares are released so the other instances can sell the stock while this one is down
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        new ArrayList<>(counters.keySet()).forEach(this::retire);
+        journal.close();
+    }
+    
+    private static class Counter {
+        
+        private final AtomicInteger available;
+        private final AtomicInteger unflushed = new AtomicInteger();
+        
+        Counter(int available) {
+            this.available = new AtomicInteger(available);
+        }
+        
+        // Remaining units after taking quantity, or -1 when the counter cannot cover it
+        int take(int quantity) {
+            int current;
+            int remaining;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    return -1;
+                }
+                remaining = current - quantity;
+            } while (!available.compareAndSet(current, remaining));
+            return remaining;
+        }
+    }
+}
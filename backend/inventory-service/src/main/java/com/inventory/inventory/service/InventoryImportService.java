@@ -0,0 +1,274 @@
+package com.inventory.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.inventory.dto.InventoryImportReport;
+import com.inventory.inventory.dto.InventoryRequest;
+import com.inventory.inventory.model.InventoryItem;
+import com.inventory.inventory.model.Money;
+import com.inventory.inventory.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Streams a supplier catalogue into the inventory collection. Rows are parsed one line at a time and upserted in
+// fixed-size unordered bulk writes, so memory is bounded by the chunk size and the number of reported errors.
+@Service
+@Slf4j
+public class InventoryImportService {
+    
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+    
+    private final InventoryRepository inventoryRepository;
+    private final InventorySearchIndex inventorySearchIndex;
+    private final InventorySummaryCounters summaryCounters;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    
+    public InventoryImportService(InventoryRepository inventoryRepository,
+                                  InventorySearchIndex inventorySearchIndex,
+                                  InventorySummaryCounters summaryCounters,
+                                  ObjectMapper objectMapper,
+                                  Validator validator,
+                                  @Value("${inventory.import.chunk-size:1000}") int chunkSize,
+                                  @Value("${inventory.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventorySearchIndex = inventorySearchIndex;
+        this.summaryCounters = summaryCounters;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+    
+    public InventoryImportReport importCatalogue(InputStream input, Format format, String userId) throws IOException {
+        log.info("Importing inventory catalogue as {}", format);
+        Progress progress = new Progress(System.currentTimeMillis());
+        List<InventoryItem> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+                progress.rowsRead++;
+                String id = null;
+                try {
+                    JsonNode row = format == Format.CSV ? csvRow(line, columns) : objectMapper.readTree(line);
+                    id = text(row, "id");
+                    // Keyset pages walk _id in BSON order, where every string sorts before every ObjectId
+                    if (id != null && !ObjectId.isValid(id)) {
+                        progress.fail(lineNumber, id, "id: must be a 24-character hex ObjectId");
+                        continue;
+                    }
+                    InventoryRequest request = objectMapper.treeToValue(row, InventoryRequest.class);
+                    String violations = validate(request);
+                    if (violations != null) {
+                        progress.fail(lineNumber, id, violations);
+                        continue;
+                    }
+                    chunk.add(toItem(id, request, userId));
+                    chunkLines.add(lineNumber);
+                } catch (JsonProcessingException e) {
+                    progress.fail(lineNumber, id, "Malformed row: " + e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    progress.fail(lineNumber, id, "Malformed row: " + e.getMessage());
+                    continue;
+                }
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, chunkLines, progress);
+                }
+            }
+        }
+        flush(chunk, chunkLines, progress);
+        
+        // The incremental search and summary paths are bypassed, so resync them once for the whole file
+        if (progress.inserted + progress.updated > 0) {
+            inventorySearchIndex.rebuild();
+            summaryCounters.rebuild();
+        }
+        
+        InventoryImportReport report = progress.toReport(System.currentTimeMillis());
+        log.info("Imported {} row(s): {} inserted, {} updated, {} failed at {} rows/s",
+                report.getRowsRead(), report.getInserted(), report.getUpdated(), report.getFailed(),
+                report.getRowsPerSecond());
+        return report;
+    }
+    
+    private void flush(List<InventoryItem> chunk, List<Long> chunkLines, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        InventoryImportReport.ChunkResult result = inventoryRepository.upsertAll(chunk);
+        progress.inserted += result.getInserted();
+        progress.updated += result.getUpdated();
+        result.getFailures().forEach((index, message) ->
+                progress.fail(chunkLines.get(index), chunk.get(index).getId(), message));
+        chunk.clear();
+        chunkLines.clear();
+    }
+    
+    private String validate(InventoryRequest request) {
+        Set<ConstraintViolation<InventoryRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+    
+    private static InventoryItem toItem(String id, InventoryRequest request, String userId) {
+        return InventoryItem.builder()
+                .id(id)
+                .name(request.getName())
+                .category(request.getCategory())
+                .description(request.getDescription())
+                .quantity(request.getQuantity())
+                .price(Money.of(request.getPrice()))
+                .createdBy(userId)
+                .build();
+    }
+    
+    private static Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+    
+    // Maps a CSV line onto the same JSON shape as an NDJSON row so both formats share conversion and validation
+    private JsonNode csvRow(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", column(values, columns, "id"));
+        row.put("name", column(values, columns, "name"));
+        row.put("category", column(values, columns, "category"));
+        row.put("description", column(values, columns, "description"));
+        String quantity = column(values, columns, "quantity");
+        row.put("quantity", quantity == null ? null : Integer.valueOf(quantity.trim()));
+        String price = column(values, columns, "price");
+        row.put("price", price == null ? null : new BigDecimal(price.trim()));
+        return objectMapper.valueToTree(row);
+    }
+    
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+    
+    private static String text(JsonNode row, String field) {
+        JsonNode value = row.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+    
+    // RFC 4180 quoting within a single line; quoted fields may not span lines
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+    
+    private class Progress {
+        
+        private final long startedAt;
+        private final List<InventoryImportReport.RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long failed;
+        
+        private Progress(long startedAt) {
+            this.startedAt = startedAt;
+        }
+        
+        private void fail(long line, String id, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(InventoryImportReport.RowError.builder()
+                        .line(line)
+                        .id(id)
+                        .message(message)
+                        .build());
+            }
+        }
+        
+        private InventoryImportReport toReport(long finishedAt) {
+            long elapsedMs = Math.max(1, finishedAt - startedAt);
+            return InventoryImportReport.builder()
+                    .rowsRead(rowsRead)
+                    .inserted(inserted)
+                    .updated(updated)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .elapsedMs(elapsedMs)
+                    .rowsPerSecond(rowsRead * 1000 / elapsedMs)
+                    .build();
+        }
+    }
+}
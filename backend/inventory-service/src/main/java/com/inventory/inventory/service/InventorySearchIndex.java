@@ -0,0 +1,225 @@
+package com.inventory.inventory.service;
+
+import com.inventory.inventory.model.InventoryItem;
+import com.inventory.inventory.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// In-process trigram index over item names (and categories, optionally descriptions) that replaces the
+// unanchored regex scan behind /api/inventory/search.
+@Component
+@Slf4j
+public class InventorySearchIndex {
+    
+    private static final int GRAM_LENGTH = 3;
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double CATEGORY_WEIGHT = 1.0;
+    private static final double DESCRIPTION_WEIGHT = 0.5;
+    private static final double SUBSTRING_BONUS = 2.0;
+    private static final double PREFIX_BONUS = 1.0;
+    
+    private final InventoryRepository inventoryRepository;
+    private final boolean indexDescription;
+    
+    private volatile Snapshot snapshot = new Snapshot();
+    private volatile boolean ready;
+    
+    public InventorySearchIndex(InventoryRepository inventoryRepository,
+                                @Value("${inventory.search.index-description:false}") boolean indexDescription) {
+        this.inventoryRepository = inventoryRepository;
+        this.indexDescription = indexDescription;
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    // Other replicas write to the same collection, so the index is periodically rebuilt from Mongo
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${inventory.search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${inventory.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Snapshot fresh = new Snapshot();
+        try (Stream<InventoryItem> items = inventoryRepository.streamAllBy()) {
+            items.forEach(item -> fresh.put(item.getId(), toDocument(item)));
+        }
+        snapshot = fresh;
+        ready = true;
+        log.info("Built inventory search index with {} item(s) in {} ms",
+                fresh.documents.size(), System.currentTimeMillis() - start);
+    }
+    
+    public void put(InventoryItem item) {
+        snapshot.put(item.getId(), toDocument(item));
+    }
+    
+    public void remove(String id) {
+        snapshot.remove(id);
+    }
+    
+    // Returns item ids ranked by weighted gram overlap, with bonuses for substring and prefix matches on the name
+    public List<String> search(String keyword, int limit) {
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Snapshot current = snapshot;
+        Map<String, Double> scores = query.length() < GRAM_LENGTH
+                ? current.scanShortQuery(query)
+                : current.score(query);
+        
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+    
+    private IndexedDocument toDocument(InventoryItem item) {
+        return new IndexedDocument(
+                normalize(item.getName()),
+                normalize(item.getCategory()),
+                indexDescription ? normalize(item.getDescription()) : "");
+    }
+    
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).trim();
+    }
+    
+    static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+    
+    private static final class IndexedDocument {
+        
+        private final String name;
+        private final String category;
+        private final String description;
+        
+        private IndexedDocument(String name, String category, String description) {
+            this.name = name;
+            this.category = category;
+            this.description = description;
+        }
+    }
+    
+    private static final class Snapshot {
+        
+        private final Map<String, IndexedDocument> documents = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> namePostings = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> categoryPostings = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> descriptionPostings = new ConcurrentHashMap<>();
+        
+        private void put(String id, IndexedDocument document) {
+            remove(id);
+            documents.put(id, document);
+            addPostings(namePostings, id, document.name);
+            addPostings(categoryPostings, id, document.category);
+            addPostings(descriptionPostings, id, document.description);
+        }
+        
+        private void remove(String id) {
+            IndexedDocument previous = documents.remove(id);
+            if (previous != null) {
+                removePostings(namePostings, id, previous.name);
+                removePostings(categoryPostings, id, previous.category);
+                removePostings(descriptionPostings, id, previous.description);
+            }
+        }
+        
+        private Map<String, Double> score(String query) {
+            Set<String> queryGrams = grams(query);
+            Map<String, Double> scores = new HashMap<>();
+            accumulate(scores, namePostings, queryGrams, NAME_WEIGHT);
+            accumulate(scores, categoryPostings, queryGrams, CATEGORY_WEIGHT);
+            accumulate(scores, descriptionPostings, queryGrams, DESCRIPTION_WEIGHT);
+            
+            // Drop weak partial overlaps that score below half of a full category match
+            double threshold = queryGrams.size() * CATEGORY_WEIGHT / 2;
+            List<String> weak = new ArrayList<>();
+            scores.forEach((id, score) -> {
+                if (score < threshold) {
+                    weak.add(id);
+                }
+            });
+            weak.forEach(scores::remove);
+            
+            scores.replaceAll((id, score) -> score + nameBonus(documents.get(id), query));
+            return scores;
+        }
+        
+        // Queries shorter than a gram cannot use the postings; scan the compact in-memory names instead
+        private Map<String, Double> scanShortQuery(String query) {
+            Map<String, Double> scores = new HashMap<>();
+            documents.forEach((id, document) -> {
+                if (document.name.contains(query)) {
+                    scores.put(id, NAME_WEIGHT + nameBonus(document, query));
+                } else if (document.category.contains(query)) {
+                    scores.put(id, CATEGORY_WEIGHT);
+                }
+            });
+            return scores;
+        }
+        
+        private static double nameBonus(IndexedDocument document, String query) {
+            if (document == null) {
+                return 0;
+            }
+            double bonus = 0;
+            if (document.name.contains(query)) {
+                bonus += SUBSTRING_BONUS;
+            }
+            if (document.name.startsWith(query)) {
+                bonus += PREFIX_BONUS;
+            }
+            return bonus;
+        }
+        
+        private static void accumulate(Map<String, Double> scores, Map<String, Set<String>> postings,
+                                       Set<String> queryGrams, double weight) {
+            for (String gram : queryGrams) {
+                Set<String> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.forEach(id -> scores.merge(id, weight, Double::sum));
+                }
+            }
+        }
+        
+        private static void addPostings(Map<String, Set<String>> postings, String id, String text) {
+            for (String gram : grams(text)) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+        
+        private static void removePostings(Map<String, Set<String>> postings, String id, String text) {
+            for (String gram : grams(text)) {
+                Set<String> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+    }
+}
@@ -1,24 +1,77 @@
 package com.inventory.inventory.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.inventory.dto.BatchGetResponse;
+import com.inventory.inventory.dto.BatchReservationResponse;
+import com.inventory.inventory.dto.CursorPageResponse;
 import com.inventory.inventory.dto.InventoryRequest;
 import com.inventory.inventory.dto.InventoryResponse;
+import com.inventory.inventory.dto.InventorySummaryResponse;
+import com.inventory.inventory.dto.QuantityUpdateResult;
+import com.inventory.inventory.dto.ReservationReleaseRequest;
+import com.inventory.inventory.dto.ReservationRequest;
+import com.inventory.inventory.dto.ReservationResponse;
 import com.inventory.inventory.exception.InventoryNotFoundException;
+import com.inventory.inventory.exception.PreconditionFailedException;
+import com.inventory.inventory.exception.ReservationInProgressException;
 import com.inventory.inventory.model.InventoryItem;
+import com.inventory.inventory.model.Money;
+import com.inventory.inventory.model.ReservationRecord;
 import com.inventory.inventory.repository.InventoryRepository;
+import com.inventory.inventory.repository.ReservationRecordRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class InventoryService {
     
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 200;
+    private static final Duration RESERVATION_RECORD_RETENTION = Duration.ofDays(7);
+    
     private final InventoryRepository inventoryRepository;
+    private final ReservationRecordRepository reservationRecordRepository;
+    private final HotItemStockCache hotItemStockCache;
+    private final InventorySearchIndex inventorySearchIndex;
+    private final InventorySummaryCounters summaryCounters;
+    private final ObjectMapper objectMapper;
+    
+    // Far longer than any batch write takes, so only markers left by a crashed call count as abandoned
+    @Value("${inventory.reservations.abandoned-after-ms:300000}")
+    private long abandonedAfterMs;
+    
+    @Value("${inventory.reservations.sweep-batch-size:500}")
+    private int sweepBatchSize;
+    
+    // Must outlast the slowest reservation call, or a live call can be taken over
+    @Value("${inventory.reservations.lease-ms:30000}")
+    private long reservationLeaseMs;
     
     public InventoryResponse createInventoryItem(InventoryRequest request, String userId) {
         log.info("Creating new inventory item: {}", request.getName());
@@ -28,7 +81,7 @@ public class InventoryService {
                 .category(request.getCategory())
                 .description(request.getDescription())
                 .quantity(request.getQuantity())
-                .price(request.getPrice())
+                .price(Money.of(request.getPrice()))
                 .createdBy(userId)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
@@ -37,6 +90,8 @@ public class InventoryService {
         item.updateStatus();
         
         InventoryItem savedItem = inventoryRepository.save(item);
+        inventorySearchIndex.put(savedItem);
+        summaryCounters.record(null, InventorySummaryCounters.Contribution.of(savedItem));
         return mapToInventoryResponse(savedItem);
     }
     
@@ -47,6 +102,38 @@ public class InventoryService {
                 .collect(Collectors.toList());
     }
     
+    public CursorPageResponse<InventoryResponse> getInventoryItemsPage(String cursor, int limit) {
+        log.info("Fetching inventory page after cursor: {}, limit: {}", cursor, limit);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        
+        // Fetch one extra document to learn whether another page exists without a count query
+        List<InventoryItem> items = inventoryRepository.findPageAfter(
+                CursorPageResponse.decodeCursor(cursor), pageSize + 1);
+        boolean hasMore = items.size() > pageSize;
+        List<InventoryItem> page = hasMore ? items.subList(0, pageSize) : items;
+        
+        return CursorPageResponse.<InventoryResponse>builder()
+                .items(page.stream()
+                        .map(this::mapToInventoryResponse)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasMore ? CursorPageResponse.encodeCursor(page.get(page.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    // Writes one JSON document per line straight from the Mongo cursor, so heap use does not grow with the collection
+    public void streamInventoryItems(OutputStream outputStream) throws IOException {
+        log.info("Streaming all inventory items");
+        try (Stream<InventoryItem> items = inventoryRepository.streamAllBy()) {
+            Iterator<InventoryItem> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(objectMapper.writeValueAsBytes(mapToInventoryResponse(iterator.next())));
+                outputStream.write('\n');
+            }
+        }
+        outputStream.flush();
+    }
+    
     public InventoryResponse getInventoryItemById(String id) {
         log.info("Fetching inventory item with ID: {}", id);
         InventoryItem item = inventoryRepository.findById(id)
@@ -54,6 +141,32 @@ public class InventoryService {
         return mapToInventoryResponse(item);
     }
     
+    // One $in query for the whole batch; duplicates in the request are answered from the same lookup
+    public BatchGetResponse getInventoryItems(List<String> ids) {
+        log.info("Fetching {} inventory item(s) by ID", ids.size());
+        Map<String, InventoryResponse> byId = new HashMap<>();
+        inventoryRepository.findAllById(new LinkedHashSet<>(ids))
+                .forEach(item -> byId.put(item.getId(), mapToInventoryResponse(item)));
+        
+        List<BatchGetResponse.Result> results = new ArrayList<>(ids.size());
+        List<String> notFoundIds = new ArrayList<>();
+        for (String id : ids) {
+            InventoryResponse item = byId.get(id);
+            if (item == null) {
+                notFoundIds.add(id);
+            }
+            results.add(BatchGetResponse.Result.builder()
+                    .id(id)
+                    .found(item != null)
+                    .item(item)
+                    .build());
+        }
+        return BatchGetResponse.builder()
+                .results(results)
+                .notFoundIds(notFoundIds)
+                .build();
+    }
+    
     public List<InventoryResponse> getInventoryItemsByCategory(String category) {
         log.info("Fetching inventory items by category: {}", category);
         return inventoryRepository.findByCategory(category).stream()
@@ -68,68 +181,398 @@ public class InventoryService {
                 .collect(Collectors.toList());
     }
     
-    public List<InventoryResponse> searchInventoryItems(String keyword) {
+    public List<InventoryResponse> searchInventoryItems(String keyword, int limit) {
         log.info("Searching inventory items with keyword: {}", keyword);
-        return inventoryRepository.findByNameContainingIgnoreCase(keyword).stream()
+        int resultLimit = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        
+        // Until the in-memory index has been built, fall back to the regex query
+        if (!inventorySearchIndex.isReady()) {
+            return inventoryRepository.findByNameContainingIgnoreCase(keyword).stream()
+                    .limit(resultLimit)
+                    .map(this::mapToInventoryResponse)
+                    .collect(Collectors.toList());
+        }
+        
+        List<String> rankedIds = inventorySearchIndex.search(keyword, resultLimit);
+        Map<String, InventoryItem> itemsById = new HashMap<>();
+        inventoryRepository.findAllById(rankedIds).forEach(item -> itemsById.put(item.getId(), item));
+        return rankedIds.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
                 .map(this::mapToInventoryResponse)
                 .collect(Collectors.toList());
     }
     
-    public InventoryResponse updateInventoryItem(String id, InventoryRequest request, String userId) {
+    // expectedVersion comes from If-Match; a save racing another write still fails on the @Version check
+    public InventoryResponse updateInventoryItem(String id, InventoryRequest request, String userId,
+                                                 Long expectedVersion) {
         log.info("Updating inventory item with ID: {}", id);
         InventoryItem existingItem = inventoryRepository.findById(id)
                 .orElseThrow(() -> new InventoryNotFoundException("Inventory item not found with ID: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(existingItem.getVersion())) {
+            throw new PreconditionFailedException("Inventory item " + id + " is at version "
+                    + existingItem.getVersion() + ", not " + expectedVersion);
+        }
+        // Reserved and leased units are already promised; the save's version check keeps this from racing them
+        int committed = existingItem.getReservedQuantity() + existingItem.getLeasedQuantity();
+        if (request.getQuantity() < committed) {
+            throw new IllegalStateException("Inventory item " + id + " cannot go below the " + committed
+                    + " unit(s) reserved or leased to hot item counters");
+        }
+        InventorySummaryCounters.Contribution before = InventorySummaryCounters.Contribution.of(existingItem);
         
         existingItem.setName(request.getName());
         existingItem.setCategory(request.getCategory());
         existingItem.setDescription(request.getDescription());
         existingItem.setQuantity(request.getQuantity());
-        existingItem.setPrice(request.getPrice());
+        existingItem.setPrice(Money.of(request.getPrice()));
         existingItem.setUpdatedAt(LocalDateTime.now());
         
         existingItem.updateStatus();
         
         InventoryItem updatedItem = inventoryRepository.save(existingItem);
+        inventorySearchIndex.put(updatedItem);
+        summaryCounters.record(before, InventorySummaryCounters.Contribution.of(updatedItem));
         return mapToInventoryResponse(updatedItem);
     }
     
-    public void updateInventoryQuantity(String id, int quantity) {
+    public QuantityUpdateResult updateInventoryQuantity(String id, int quantity) {
         log.info("Updating inventory quantity for item ID: {}, quantity change: {}", id, quantity);
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity to deduct must be positive");
+        }
+        
+        // Checked and taken in one step: an item that stops being hot meanwhile falls through to the Mongo path
+        Optional<OptionalInt> fromCounter = hotItemStockCache.tryDecrement(id, quantity);
+        if (fromCounter.isPresent()) {
+            OptionalInt remaining = fromCounter.get();
+            if (remaining.isPresent()) {
+                return QuantityUpdateResult.builder()
+                        .id(id)
+                        .outcome(QuantityUpdateResult.Outcome.UPDATED)
+                        .requestedQuantity(quantity)
+                        .remainingQuantity(remaining.getAsInt())
+                        .build();
+            }
+            log.warn("Insufficient inventory for hot item ID: {}", id);
+            return QuantityUpdateResult.builder()
+                    .id(id)
+                    .outcome(QuantityUpdateResult.Outcome.INSUFFICIENT_STOCK)
+                    .requestedQuantity(quantity)
+                    .build();
+        }
+        
+        // Single conditional findAndModify: no read-modify-write race and one round trip on the happy path
+        return inventoryRepository.decrementQuantity(id, quantity)
+                .map(item -> {
+                    summaryCounters.record(
+                            InventorySummaryCounters.Contribution.beforeAdjustment(item, -quantity, 0),
+                            InventorySummaryCounters.Contribution.of(item));
+                    return QuantityUpdateResult.builder()
+                            .id(id)
+                            .outcome(QuantityUpdateResult.Outcome.UPDATED)
+                            .requestedQuantity(quantity)
+                            .remainingQuantity(item.getQuantity())
+                            .build();
+                })
+                .orElseGet(() -> insufficientStock(id, quantity));
+    }
+    
+    private QuantityUpdateResult insufficientStock(String id, int quantity) {
+        // The guard failed either because the item is missing or because stock ran out
         InventoryItem item = inventoryRepository.findById(id)
                 .orElseThrow(() -> new InventoryNotFoundException("Inventory item not found with ID: " + id));
+        log.warn("Insufficient inventory for item ID: {}", id);
+        return QuantityUpdateResult.builder()
+                .id(id)
+                .outcome(QuantityUpdateResult.Outcome.INSUFFICIENT_STOCK)
+                .requestedQuantity(quantity)
+                .remainingQuantity(item.getQuantity())
+                .build();
+    }
+    
+    // Idempotent per reference: the first call claims a record, and retries replay its outcome
+    public ReservationResponse reserveInventory(ReservationRequest request) {
+        log.info("Reserving {} line(s) for reference: {}", request.getItems().size(), request.getReferenceId());
+        String referenceId = request.getReferenceId();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(Duration.ofMillis(reservationLeaseMs));
+        ReservationRecord record = ReservationRecord.builder()
+                .referenceId(referenceId)
+                .status(ReservationRecord.RecordStatus.IN_PROGRESS)
+                .leaseUntil(leaseUntil)
+                .createdAt(now)
+                .expiresAt(now.plus(RESERVATION_RECORD_RETENTION))
+                .build();
+        try {
+            reservationRecordRepository.insert(record);
+        } catch (DuplicateKeyException e) {
+            // A record left IN_PROGRESS by a call that died is taken over once its lease has run out
+            if (!reservationRecordRepository.takeOver(referenceId, now, leaseUntil)) {
+                return replayReservation(referenceId);
+            }
+            log.warn("Taking over abandoned reservation for reference: {}", referenceId);
+        }
         
-        int newQuantity = item.getQuantity() - quantity;
-        if (newQuantity < 0) {
-            log.warn("Insufficient inventory for item ID: {}", id);
-            throw new IllegalArgumentException("Insufficient inventory for item: " + item.getName());
+        ReservationResponse response;
+        try {
+            response = placeReservation(referenceId, mergeLines(request.getItems()));
+        } catch (RuntimeException e) {
+            reservationRecordRepository.deleteById(referenceId);
+            throw e;
+        }
+        record.setStatus(response.getStatus() == ReservationResponse.ReservationStatus.RESERVED
+                ? ReservationRecord.RecordStatus.RESERVED
+                : ReservationRecord.RecordStatus.REJECTED);
+        record.setInsufficientProductIds(response.getInsufficientProductIds());
+        record.setLeaseUntil(null);
+        reservationRecordRepository.save(record);
+        return response;
+    }
+    
+    private ReservationResponse placeReservation(String referenceId, Map<String, Integer> quantities) {
+        if (adjustAllOrNothing(referenceId, quantities, false)) {
+            recordBulkAdjustment(quantities, -1, 0);
+            return ReservationResponse.builder()
+                    .referenceId(referenceId)
+                    .status(ReservationResponse.ReservationStatus.RESERVED)
+                    .insufficientProductIds(Collections.emptyList())
+                    .build();
         }
         
-        item.setQuantity(newQuantity);
-        item.setUpdatedAt(LocalDateTime.now());
-        item.updateStatus();
+        log.warn("Reservation rejected for reference: {}", referenceId);
+        return ReservationResponse.builder()
+                .referenceId(referenceId)
+                .status(ReservationResponse.ReservationStatus.REJECTED)
+                .insufficientProductIds(findInsufficientProductIds(quantities))
+                .build();
+    }
+    
+    private ReservationResponse replayReservation(String referenceId) {
+        ReservationRecord record = reservationRecordRepository.findById(referenceId)
+                .orElseThrow(() -> new ReservationInProgressException(
+                        "Reservation for reference " + referenceId + " is being retried; try again"));
+        if (record.getStatus() == ReservationRecord.RecordStatus.IN_PROGRESS) {
+            throw new ReservationInProgressException("Reservation for reference " + referenceId + " is in progress");
+        }
+        log.info("Replaying recorded {} reservation for reference: {}", record.getStatus(), referenceId);
+        // A released reference replays as rejected, so a reservation delivered after its release takes no stock
+        return ReservationResponse.builder()
+                .referenceId(referenceId)
+                .status(record.getStatus() == ReservationRecord.RecordStatus.RESERVED
+                        ? ReservationResponse.ReservationStatus.RESERVED
+                        : ReservationResponse.ReservationStatus.REJECTED)
+                .insufficientProductIds(record.getInsufficientProductIds())
+                .build();
+    }
+    
+    // Idempotent per reference like reserveInventory. A reference with no record gets a RELEASED one, so a
+    // reservation that arrives after its release replays as rejected instead of taking stock
+    public ReservationResponse releaseReservation(String referenceId, ReservationReleaseRequest request) {
+        log.info("Releasing reservation for reference: {}", referenceId);
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Integer> quantities = mergeLines(request.getItems());
+        if (reservationRecordRepository.markReleased(referenceId, now.plus(RESERVATION_RECORD_RETENTION))
+                .isPresent()) {
+            restockReservation(referenceId, quantities);
+            return released(referenceId);
+        }
+        try {
+            reservationRecordRepository.insert(ReservationRecord.builder()
+                    .referenceId(referenceId)
+                    .status(ReservationRecord.RecordStatus.RELEASED)
+                    .createdAt(now)
+                    .expiresAt(now.plus(RESERVATION_RECORD_RETENTION))
+                    .build());
+            // No record left: either nothing was reserved, or the caller saw it reserved and the record expired
+            if (request.isConfirmed()) {
+                log.warn("Reservation record for reference {} has expired; releasing its stock anyway", referenceId);
+                restockReservation(referenceId, quantities);
+            }
+            return released(referenceId);
+        } catch (DuplicateKeyException e) {
+            // The record appeared between the two writes; it may have just become RESERVED
+            if (reservationRecordRepository.markReleased(referenceId, now.plus(RESERVATION_RECORD_RETENTION))
+                    .isPresent()) {
+                restockReservation(referenceId, quantities);
+                return released(referenceId);
+            }
+        }
+        ReservationRecord record = reservationRecordRepository.findById(referenceId)
+                .orElseThrow(() -> new ReservationInProgressException(
+                        "Reservation for reference " + referenceId + " is being retried; try again"));
+        if (record.getStatus() == ReservationRecord.RecordStatus.IN_PROGRESS) {
+            throw new ReservationInProgressException("Reservation for reference " + referenceId + " is in progress");
+        }
+        // REJECTED or already RELEASED: the reference holds no stock
+        return released(referenceId);
+    }
+    
+    private void restockReservation(String referenceId, Map<String, Integer> quantities) {
+        inventoryRepository.restock(quantities);
+        recordBulkAdjustment(quantities, 1, 0);
+        log.info("Gave back {} line(s) reserved for reference: {}", quantities.size(), referenceId);
+    }
+    
+    private static ReservationResponse released(String referenceId) {
+        return ReservationResponse.builder()
+                .referenceId(referenceId)
+                .status(ReservationResponse.ReservationStatus.RELEASED)
+                .insufficientProductIds(Collections.emptyList())
+                .build();
+    }
+    
+    // Each reservation stays all-or-nothing on its own; batching only saves the caller one round trip per order
+    public BatchReservationResponse reserveInventoryBatch(List<ReservationRequest> requests) {
+        log.info("Reserving stock for a batch of {} reference(s)", requests.size());
+        return BatchReservationResponse.builder()
+                .results(requests.stream()
+                        .map(this::reserveInBatch)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    // A reference still being placed by another call is reported on its own instead of failing the whole batch
+    private ReservationResponse reserveInBatch(ReservationRequest request) {
+        try {
+            return reserveInventory(request);
+        } catch (ReservationInProgressException e) {
+            log.warn("Reservation for reference {} is still in progress, skipping it in this batch",
+                    request.getReferenceId());
+            return ReservationResponse.builder()
+                    .referenceId(request.getReferenceId())
+                    .status(ReservationResponse.ReservationStatus.IN_PROGRESS)
+                    .insufficientProductIds(Collections.emptyList())
+                    .build();
+        }
+    }
+    
+    // Hot lines come out of this instance's share, so the Mongo guards only weigh them against that share
+    boolean adjustAllOrNothing(String batchId, Map<String, Integer> quantities, boolean hold) {
+        Optional<Set<String>> fromShare = hotItemStockCache.take(quantities);
+        if (fromShare.isEmpty()) {
+            return false;
+        }
+        // A write that throws keeps the hot lines set aside: an unknown outcome must not let them be sold twice
+        boolean applied = hold
+                ? inventoryRepository.holdAll(batchId, quantities, hotItemStockCache.owner(), fromShare.get())
+                : inventoryRepository.decrementAll(batchId, quantities, hotItemStockCache.owner(), fromShare.get());
+        if (!applied) {
+            hotItemStockCache.giveBack(quantities, fromShare.get());
+        }
+        return applied;
+    }
+    
+    // Bulk writes do not return documents, so read the adjusted items once to move their summary buckets
+    void recordBulkAdjustment(Map<String, Integer> quantities, int quantitySign, int reservedSign) {
+        inventoryRepository.findAllById(quantities.keySet()).forEach(item -> {
+            int quantity = quantities.get(item.getId());
+            summaryCounters.record(
+                    InventorySummaryCounters.Contribution.beforeAdjustment(
+                            item, quantitySign * quantity, reservedSign * quantity),
+                    InventorySummaryCounters.Contribution.of(item));
+        });
+    }
+    
+    // Gives back the lines of batches whose call died between the bulk write and its cleanup or rollback
+    @Scheduled(fixedDelayString = "${inventory.reservations.sweep-interval-ms:60000}")
+    public void rollBackAbandonedReservations() {
+        LocalDateTime appliedBefore = LocalDateTime.now().minus(Duration.ofMillis(abandonedAfterMs));
+        PageRequest batch = PageRequest.of(0, sweepBatchSize);
+        List<InventoryItem> items;
+        int rolledBack = 0;
+        do {
+            items = inventoryRepository.findByPendingReservationsAppliedAtBefore(appliedBefore, batch);
+            for (InventoryItem item : items) {
+                for (InventoryItem.PendingReservation marker : item.getPendingReservations()) {
+                    if (!marker.getAppliedAt().isBefore(appliedBefore)) {
+                        continue;
+                    }
+                    Optional<InventoryItem> restored = inventoryRepository.rollbackPendingReservation(
+                            item.getId(), marker);
+                    if (restored.isPresent()) {
+                        summaryCounters.record(
+                                InventorySummaryCounters.Contribution.beforeAdjustment(restored.get(),
+                                        -marker.getQuantityDelta(), -marker.getReservedDelta()),
+                                InventorySummaryCounters.Contribution.of(restored.get()));
+                        log.warn("Rolled back abandoned line of reservation {} on item ID: {}",
+                                marker.getReservationId(), item.getId());
+                        rolledBack++;
+                    }
+                }
+            }
+        } while (items.size() == sweepBatchSize);
         
-        inventoryRepository.save(item);
+        if (rolledBack > 0) {
+            log.info("Rolled back {} abandoned reservation line(s)", rolledBack);
+        }
+    }
+    
+    public InventorySummaryResponse getInventorySummary() {
+        log.info("Fetching inventory summary");
+        return summaryCounters.summary();
+    }
+    
+    // Best-effort diagnosis after a rejected batch; stock may have moved since the bulk write
+    List<String> findInsufficientProductIds(Map<String, Integer> quantities) {
+        Map<String, Integer> available = new HashMap<>();
+        inventoryRepository.findAllById(quantities.keySet())
+                .forEach(item -> available.put(item.getId(), item.getAvailableQuantity()));
+        return quantities.entrySet().stream()
+                .filter(entry -> hotItemStockCache.isHot(entry.getKey())
+                        ? hotItemStockCache.available(entry.getKey()) < entry.getValue()
+                        : available.getOrDefault(entry.getKey(), 0) < entry.getValue())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+    
+    // Repeated products are merged so each document is touched by exactly one guarded update
+    static Map<String, Integer> mergeLines(List<ReservationRequest.Line> lines) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        lines.forEach(line -> quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+        return quantities;
+    }
+    
+    public void markHot(String id) {
+        log.info("Enabling hot item mode for item ID: {}", id);
+        hotItemStockCache.markHot(id);
+    }
+    
+    public void unmarkHot(String id) {
+        log.info("Disabling hot item mode for item ID: {}", id);
+        hotItemStockCache.unmarkHot(id);
+    }
+    
+    public void releaseExpiredHotShare(String id, String owner) {
+        log.info("Releasing expired hot share of owner {} on item ID: {}", owner, id);
+        hotItemStockCache.releaseExpiredShare(id, owner);
     }
     
     public void deleteInventoryItem(String id) {
         log.info("Deleting inventory item with ID: {}", id);
-        if (!inventoryRepository.existsById(id)) {
-            throw new InventoryNotFoundException("Inventory item not found with ID: " + id);
-        }
+        InventoryItem item = inventoryRepository.findById(id)
+                .orElseThrow(() -> new InventoryNotFoundException("Inventory item not found with ID: " + id));
         inventoryRepository.deleteById(id);
+        inventorySearchIndex.remove(id);
+        summaryCounters.record(InventorySummaryCounters.Contribution.of(item), null);
     }
     
     private InventoryResponse mapToInventoryResponse(InventoryItem item) {
+        // Hot items may have sold units from memory that are not flushed to Mongo yet
+        int unflushed = hotItemStockCache.unflushed(item.getId());
         return InventoryResponse.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .category(item.getCategory())
                 .description(item.getDescription())
-                .quantity(item.getQuantity())
-                .price(item.getPrice())
+                .quantity(item.getQuantity() - unflushed)
+                .reservedQuantity(item.getReservedQuantity())
+                .availableQuantity(item.getAvailableQuantity() - unflushed)
+                .price(item.getPrice() == null ? null : item.getPrice().toBigDecimal())
                 .status(item.getStatus())
                 .createdAt(item.getCreatedAt())
                 .updatedAt(item.getUpdatedAt())
+                .version(item.getVersion())
                 .build();
     }
 }
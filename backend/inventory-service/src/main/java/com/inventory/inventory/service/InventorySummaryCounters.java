@@ -0,0 +1,235 @@
+package com.inventory.inventory.service;
+
+import com.inventory.inventory.dto.InventorySummaryResponse;
+import com.inventory.inventory.model.InventoryItem;
+import com.inventory.inventory.model.Money;
+import com.inventory.inventory.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Item count, units and stock value per (category, status) bucket, moved incrementally on every write so the
+// dashboard summary is answered without reading inventory documents. A periodic aggregation rebuilds the buckets
+// and reports how far the incremental counts had drifted (for example through writes on other replicas).
+@Component
+@Slf4j
+public class InventorySummaryCounters {
+    
+    private final InventoryRepository inventoryRepository;
+    
+    private volatile Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastReconciledAt;
+    private volatile long lastReconciliationDrift;
+    
+    public InventorySummaryCounters(InventoryRepository inventoryRepository) {
+        this.inventoryRepository = inventoryRepository;
+    }
+    
+    // Moves an item from the bucket it was in to the bucket it is in now; either side may be null
+    public void record(Contribution before, Contribution after) {
+        if (before != null) {
+            bucket(before).add(-1, -before.quantity, -before.value());
+        }
+        if (after != null) {
+            bucket(after).add(1, after.quantity, after.value());
+        }
+    }
+    
+    public InventorySummaryResponse summary() {
+        Map<InventoryItem.InventoryStatus, Long> itemsByStatus = emptyStatusMap();
+        Map<String, InventorySummaryResponse.CategorySummary> categories = new TreeMap<>();
+        long totalItems = 0;
+        long totalUnits = 0;
+        BigDecimal totalValue = BigDecimal.ZERO;
+        
+        for (Map.Entry<BucketKey, Bucket> entry : buckets.entrySet()) {
+            BucketKey key = entry.getKey();
+            InventorySummaryResponse.BucketTotals totals = entry.getValue().totals(key);
+            if (totals.getItemCount() == 0) {
+                continue;
+            }
+            InventorySummaryResponse.CategorySummary category = categories.computeIfAbsent(
+                    String.valueOf(key.category), name -> InventorySummaryResponse.CategorySummary.builder()
+                            .category(name)
+                            .stockValue(BigDecimal.ZERO)
+                            .itemsByStatus(emptyStatusMap())
+                            .build());
+            category.setTotalItems(category.getTotalItems() + totals.getItemCount());
+            category.setTotalUnits(category.getTotalUnits() + totals.getUnits());
+            category.setStockValue(category.getStockValue().add(totals.getStockValue()));
+            if (key.status != null) {
+                category.getItemsByStatus().merge(key.status, totals.getItemCount(), Long::sum);
+                itemsByStatus.merge(key.status, totals.getItemCount(), Long::sum);
+            }
+            totalItems += totals.getItemCount();
+            totalUnits += totals.getUnits();
+            totalValue = totalValue.add(totals.getStockValue());
+        }
+        
+        return InventorySummaryResponse.builder()
+                .totalItems(totalItems)
+                .totalUnits(totalUnits)
+                .totalStockValue(totalValue)
+                .itemsByStatus(itemsByStatus)
+                .categories(new ArrayList<>(categories.values()))
+                .lastReconciledAt(lastReconciledAt)
+                .lastReconciliationDrift(lastReconciliationDrift)
+                .build();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${inventory.summary.reconcile-interval-ms:300000}",
+            fixedDelayString = "${inventory.summary.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        rebuild(lastReconciledAt != null);
+    }
+    
+    // Rebuilds after a bulk write that bypassed the incremental path, without reporting it as drift
+    public void rebuild() {
+        rebuild(false);
+    }
+    
+    private void rebuild(boolean measureDrift) {
+        Map<BucketKey, Bucket> rebuilt = new ConcurrentHashMap<>();
+        for (InventorySummaryResponse.BucketTotals totals : inventoryRepository.aggregateBucketTotals()) {
+            Bucket bucket = new Bucket();
+            bucket.add(totals.getItemCount(), totals.getUnits(), Money.of(totals.getStockValue()).getMinorUnits());
+            rebuilt.put(new BucketKey(totals.getCategory(), totals.getStatus()), bucket);
+        }
+        
+        // Drift is the number of items counted in the wrong bucket or not counted at all
+        long drift = 0;
+        Set<BucketKey> keys = new HashSet<>(buckets.keySet());
+        keys.addAll(rebuilt.keySet());
+        for (BucketKey key : keys) {
+            drift += Math.abs(itemCount(rebuilt.get(key)) - itemCount(buckets.get(key)));
+        }
+        
+        buckets = rebuilt;
+        lastReconciledAt = LocalDateTime.now();
+        lastReconciliationDrift = measureDrift ? drift : 0;
+        if (measureDrift && drift > 0) {
+            log.warn("Inventory summary counters drifted by {} item(s); rebuilt from aggregation", drift);
+        } else {
+            log.info("Inventory summary counters reconciled across {} bucket(s)", rebuilt.size());
+        }
+    }
+    
+    private Bucket bucket(Contribution contribution) {
+        return buckets.computeIfAbsent(new BucketKey(contribution.category, contribution.status), key -> new Bucket());
+    }
+    
+    private static long itemCount(Bucket bucket) {
+        return bucket == null ? 0 : bucket.count();
+    }
+    
+    private static Map<InventoryItem.InventoryStatus, Long> emptyStatusMap() {
+        Map<InventoryItem.InventoryStatus, Long> counts = new EnumMap<>(InventoryItem.InventoryStatus.class);
+        for (InventoryItem.InventoryStatus status : InventoryItem.InventoryStatus.values()) {
+            counts.put(status, 0L);
+        }
+        return counts;
+    }
+    
+    // The fields of an item that decide its bucket and its share of the bucket totals
+    public static final class Contribution {
+        
+        private final String category;
+        private final InventoryItem.InventoryStatus status;
+        private final int quantity;
+        private final Money price;
+        
+        public Contribution(String category, InventoryItem.InventoryStatus status, int quantity, Money price) {
+            this.category = category;
+            this.status = status;
+            this.quantity = quantity;
+            this.price = price;
+        }
+        
+        public static Contribution of(InventoryItem item) {
+            return new Contribution(item.getCategory(), item.getStatus(), item.getQuantity(), item.getPrice());
+        }
+        
+        // Reconstructs the state before a server-side adjustment from the state after it
+        public static Contribution beforeAdjustment(InventoryItem after, int quantityDelta, int reservedDelta) {
+            int quantity = after.getQuantity() - quantityDelta;
+            int reserved = after.getReservedQuantity() - reservedDelta;
+            return new Contribution(after.getCategory(), InventoryItem.statusFor(quantity - reserved), quantity,
+                    after.getPrice());
+        }
+        
+        // Stock value in minor units; every price shares the default currency
+        private long value() {
+            return price == null ? 0 : Math.multiplyExact(price.getMinorUnits(), (long) quantity);
+        }
+    }
+    
+    private static final class BucketKey {
+        
+        private final String category;
+        private final InventoryItem.InventoryStatus status;
+        
+        private BucketKey(String category, InventoryItem.InventoryStatus status) {
+            this.category = category;
+            this.status = status;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey other = (BucketKey) o;
+            return Objects.equals(category, other.category) && status == other.status;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(category, status);
+        }
+    }
+    
+    private static final class Bucket {
+        
+        private long itemCount;
+        private long units;
+        private long stockValue;
+        
+        private synchronized void add(long items, long unitDelta, long valueDelta) {
+            itemCount += items;
+            units += unitDelta;
+            stockValue = Math.addExact(stockValue, valueDelta);
+        }
+        
+        private synchronized long count() {
+            return itemCount;
+        }
+        
+        private synchronized InventorySummaryResponse.BucketTotals totals(BucketKey key) {
+            return InventorySummaryResponse.BucketTotals.builder()
+                    .category(key.category)
+                    .status(key.status)
+                    .itemCount(itemCount)
+                    .units(units)
+                    .stockValue(Money.ofMinor(stockValue).toBigDecimal())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.inventory.inventory.service;
+
+import com.inventory.inventory.dto.HoldRequest;
+import com.inventory.inventory.dto.HoldResponse;
+import com.inventory.inventory.exception.HoldNotFoundException;
+import com.inventory.inventory.model.StockHold;
+import com.inventory.inventory.repository.InventoryRepository;
+import com.inventory.inventory.repository.StockHoldRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockHoldService {
+    
+    private final StockHoldRepository stockHoldRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryService inventoryService;
+    
+    @Value("${inventory.holds.default-ttl-seconds:900}")
+    private long defaultTtlSeconds;
+    
+    @Value("${inventory.holds.max-ttl-seconds:3600}")
+    private long maxTtlSeconds;
+    
+    @Value("${inventory.holds.sweep-batch-size:500}")
+    private int sweepBatchSize;
+    
+    public HoldResponse createHold(HoldRequest request) {
+        log.info("Placing stock hold for reference: {}", request.getReferenceId());
+        
+        // A retried request gets back the hold already placed for its reference instead of holding stock twice
+        Optional<StockHold> existing = stockHoldRepository.findFirstByReferenceIdOrderByCreatedAtDesc(
+                request.getReferenceId());
+        if (existing.isPresent()) {
+            return mapToHoldResponse(existing.get());
+        }
+        
+        Map<String, Integer> quantities = InventoryService.mergeLines(request.getItems());
+        String holdId = "HLD-" + UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        
+        if (!inventoryService.adjustAllOrNothing(holdId, quantities, true)) {
+            log.warn("Stock hold rejected for reference: {}", request.getReferenceId());
+            return HoldResponse.builder()
+                    .referenceId(request.getReferenceId())
+                    .status(StockHold.HoldStatus.REJECTED)
+                    .items(toHoldLines(quantities))
+                    .insufficientProductIds(inventoryService.findInsufficientProductIds(quantities))
+                    .build();
+        }
+        
+        inventoryService.recordBulkAdjustment(quantities, 0, 1);
+        
+        // Stock is held before the ledger entry is written: a crash in between under-sells rather than over-sells
+        StockHold hold = StockHold.builder()
+                .id(holdId)
+                .referenceId(request.getReferenceId())
+                .items(toHoldLines(quantities))
+                .status(StockHold.HoldStatus.HELD)
+                .expiresAt(now.plusSeconds(resolveTtl(request.getTtlSeconds())))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        
+        return mapToHoldResponse(stockHoldRepository.save(hold));
+    }
+    
+    public HoldResponse getHold(String holdId) {
+        log.info("Fetching stock hold: {}", holdId);
+        return mapToHoldResponse(findHold(holdId));
+    }
+    
+    public HoldResponse commitHold(String holdId) {
+        log.info("Committing stock hold: {}", holdId);
+        StockHold hold = stockHoldRepository.markCommitted(holdId, LocalDateTime.now())
+                .orElseThrow(() -> notOpen(holdId));
+        Map<String, Integer> quantities = toQuantities(hold);
+        inventoryRepository.commitHeld(quantities);
+        inventoryService.recordBulkAdjustment(quantities, -1, -1);
+        return mapToHoldResponse(findHold(holdId));
+    }
+    
+    // Undoes a commit: the hold can only be restocked once, so a retried call never adds the stock back twice
+    public HoldResponse restockHold(String holdId) {
+        log.info("Restocking committed stock hold: {}", holdId);
+        StockHold hold = stockHoldRepository.markRestocked(holdId)
+                .orElseThrow(() -> new IllegalStateException("Stock hold " + holdId + " is not committed (status: "
+                        + findHold(holdId).getStatus() + ")"));
+        Map<String, Integer> quantities = toQuantities(hold);
+        inventoryRepository.restock(quantities);
+        inventoryService.recordBulkAdjustment(quantities, 1, 0);
+        return mapToHoldResponse(findHold(holdId));
+    }
+    
+    public HoldResponse releaseHold(String holdId) {
+        log.info("Releasing stock hold: {}", holdId);
+        StockHold hold = stockHoldRepository.markClosed(holdId, StockHold.HoldStatus.RELEASED)
+                .orElseThrow(() -> notOpen(holdId));
+        releaseStock(hold);
+        return mapToHoldResponse(findHold(holdId));
+    }
+    
+    // Walks the (status, expiresAt) index in bounded batches instead of scanning the ledger
+    @Scheduled(fixedDelayString = "${inventory.holds.sweep-interval-ms:30000}")
+    public void expireHolds() {
+        PageRequest batch = PageRequest.of(0, sweepBatchSize, Sort.by("expiresAt"));
+        List<StockHold> expired;
+        int released = 0;
+        do {
+            expired = stockHoldRepository.findByStatusAndExpiresAtBefore(
+                    StockHold.HoldStatus.HELD, LocalDateTime.now(), batch);
+            for (StockHold hold : expired) {
+                if (stockHoldRepository.markClosed(hold.getId(), StockHold.HoldStatus.EXPIRED).isPresent()) {
+                    releaseStock(hold);
+                    released++;
+                }
+            }
+        } while (expired.size() == sweepBatchSize);
+        
+        if (released > 0) {
+            log.info("Expired {} stock hold(s)", released);
+        }
+    }
+    
+    private void releaseStock(StockHold hold) {
+        Map<String, Integer> quantities = toQuantities(hold);
+        inventoryRepository.releaseHeld(quantities);
+        inventoryService.recordBulkAdjustment(quantities, 0, -1);
+    }
+    
+    private StockHold findHold(String holdId) {
+        return stockHoldRepository.findById(holdId)
+                .orElseThrow(() -> new HoldNotFoundException("Stock hold not found with ID: " + holdId));
+    }
+    
+    private RuntimeException notOpen(String holdId) {
+        StockHold hold = findHold(holdId);
+        return new IllegalStateException("Stock hold " + holdId + " is no longer open (status: " + hold.getStatus()
+                + ", expires at: " + hold.getExpiresAt() + ")");
+    }
+    
+    private long resolveTtl(Long requestedTtlSeconds) {
+        if (requestedTtlSeconds == null) {
+            return defaultTtlSeconds;
+        }
+        return Math.min(requestedTtlSeconds, maxTtlSeconds);
+    }
+    
+    private static List<StockHold.HoldLine> toHoldLines(Map<String, Integer> quantities) {
+        return quantities.entrySet().stream()
+                .map(entry -> StockHold.HoldLine.builder()
+                        .productId(entry.getKey())
+                        .quantity(entry.getValue())
+                        .build())
+                .collect(Collectors.toList());
+    }
+    
+    private static Map<String, Integer> toQuantities(StockHold hold) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        hold.getItems().forEach(line -> quantities.put(line.getProductId(), line.getQuantity()));
+        return quantities;
+    }
+    
+    private HoldResponse mapToHoldResponse(StockHold hold) {
+        return HoldResponse.builder()
+                .holdId(hold.getId())
+                .referenceId(hold.getReferenceId())
+                .status(hold.getStatus())
+                .items(hold.getItems())
+                .insufficientProductIds(Collections.emptyList())
+                .expiresAt(hold.getExpiresAt())
+                .createdAt(hold.getCreatedAt())
+                .updatedAt(hold.getUpdatedAt())
+                .build();
+    }
+}
@@ -1,8 +1,20 @@
 package com.inventory.order.client;
 
+import com.inventory.order.dto.InventoryBatchRequest;
+import com.inventory.order.dto.InventoryBatchReservationRequest;
+import com.inventory.order.dto.InventoryBatchReservationResponse;
+import com.inventory.order.dto.InventoryBatchResponse;
+import com.inventory.order.dto.InventoryHoldRequest;
+import com.inventory.order.dto.InventoryHoldResponse;
+import com.inventory.order.dto.InventoryReleaseRequest;
+import com.inventory.order.dto.InventoryReservationRequest;
+import com.inventory.order.dto.InventoryReservationResponse;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 @FeignClient(name = "inventory-service")
@@ -10,4 +22,32 @@ public interface InventoryClient {
     
     @PutMapping("/api/inventory/{productId}/quantity")
     void updateInventory(@PathVariable String productId, @RequestParam int quantity);
+    
+    @PostMapping("/api/inventory/reservations")
+    InventoryReservationResponse reserveInventory(@RequestBody InventoryReservationRequest request);
+    
+    @PostMapping("/api/inventory/reservations/{referenceId}/release")
+    InventoryReservationResponse releaseReservation(@PathVariable String referenceId,
+                                                    @RequestBody InventoryReleaseRequest request);
+    
+    @PostMapping("/api/inventory/reservations/batch")
+    InventoryBatchReservationResponse reserveInventoryBatch(@RequestBody InventoryBatchReservationRequest request);
+    
+    @PostMapping("/api/inventory/batch")
+    InventoryBatchResponse getInventoryItems(@RequestBody InventoryBatchRequest request);
+    
+    @PostMapping("/api/inventory/holds")
+    InventoryHoldResponse createHold(@RequestBody InventoryHoldRequest request);
+    
+    @GetMapping("/api/inventory/holds/{holdId}")
+    InventoryHoldResponse getHold(@PathVariable String holdId);
+    
+    @PostMapping("/api/inventory/holds/{holdId}/commit")
+    InventoryHoldResponse commitHold(@PathVariable String holdId);
+    
+    @PostMapping("/api/inventory/holds/{holdId}/release")
+    InventoryHoldResponse releaseHold(@PathVariable String holdId);
+    
+    @PostMapping("/api/inventory/holds/{holdId}/restock")
+    InventoryHoldResponse restockHold(@PathVariable String holdId);
 }
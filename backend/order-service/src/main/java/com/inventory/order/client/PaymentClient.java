@@ -0,0 +1,24 @@
+package com.inventory.order.client;
+
+import com.inventory.order.dto.PaymentRequest;
+import com.inventory.order.dto.PaymentResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+@FeignClient(name = "payment-service")
+public interface PaymentClient {
+    
+    @PostMapping("/api/payments")
+    PaymentResponse processPayment(@RequestBody PaymentRequest request, @RequestHeader("X-User-Id") String userId,
+                                   @RequestHeader("Idempotency-Key") String idempotencyKey);
+    
+    @GetMapping("/api/payments/order/{orderId}")
+    PaymentResponse getPaymentByOrderId(@PathVariable String orderId);
+    
+    @PostMapping("/api/payments/{id}/refund")
+    PaymentResponse refundPayment(@PathVariable String id, @RequestHeader("X-User-Id") String userId);
+}
@@ -0,0 +1,19 @@
+package com.inventory.order.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer {
+    
+    @Value("${order.async.request-timeout-ms:3600000}")
+    private long requestTimeoutMs;
+    
+    // Streamed responses such as exports run as async requests; the container's 30 second default would cut them off
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(requestTimeoutMs);
+    }
+}
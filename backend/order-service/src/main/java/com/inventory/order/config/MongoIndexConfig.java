@@ -0,0 +1,59 @@
+package com.inventory.order.config;
+
+import com.inventory.order.model.IdempotencyRecord;
+import com.inventory.order.model.Order;
+import com.inventory.order.model.OrderSaga;
+import com.inventory.order.model.OrderStatsBucket;
+import com.inventory.order.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexConfig {
+    
+    private static final List<Class<?>> INDEXED_DOCUMENTS =
+            Arrays.asList(Order.class, OutboxEvent.class, OrderSaga.class, OrderStatsBucket.class,
+                    IdempotencyRecord.class);
+    
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
+    
+    // Spring Boot no longer creates annotated indexes automatically, so ensure them once the context is up
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        for (Class<?> documentType : INDEXED_DOCUMENTS) {
+            IndexOperations indexOps = mongoTemplate.indexOps(documentType);
+            resolver.resolveIndexFor(documentType).forEach(indexOps::ensureIndex);
+            log.info("Ensured indexes for {}", documentType.getSimpleName());
+        }
+    }
+    
+    // Documents written before versioning have no version field; Spring Data would treat them as new and insert
+    @EventListener(ContextRefreshedEvent.class)
+    public void backfillVersions() {
+        long updated = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("version").exists(false)),
+                Update.update("version", 0L),
+                Order.class).getModifiedCount();
+        if (updated > 0) {
+            log.info("Initialized version on {} Order document(s)", updated);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.inventory.order.controller;
+
+import com.inventory.order.exception.PreconditionFailedException;
+
+// Entity tags are the document's @Version, quoted as strong validators
+final class ETags {
+    
+    private ETags() {
+    }
+    
+    static String of(Long version) {
+        return "\"" + (version == null ? 0L : version) + "\"";
+    }
+    
+    // The version an If-Match header requires, or null when any version is acceptable
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a single strong entity tag");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match any version: " + ifMatch);
+        }
+    }
+}
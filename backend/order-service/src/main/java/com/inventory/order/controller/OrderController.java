@@ -1,18 +1,40 @@
 package com.inventory.order.controller;
 
+import com.inventory.order.dto.BulkStatusUpdateRequest;
+import com.inventory.order.dto.BulkStatusUpdateResponse;
+import com.inventory.order.dto.CheckoutRequest;
+import com.inventory.order.dto.CursorPageResponse;
+import com.inventory.order.dto.ExportFormat;
 import com.inventory.order.dto.OrderRequest;
 import com.inventory.order.dto.OrderResponse;
+import com.inventory.order.dto.OrderSagaResponse;
+import com.inventory.order.dto.PaymentStatusBatchRequest;
+import com.inventory.order.dto.PaymentStatusBatchResponse;
 import com.inventory.order.model.Order;
+import com.inventory.order.service.IdempotencyService;
+import com.inventory.order.service.OrderExportService;
+import com.inventory.order.service.OrderSagaOrchestrator;
 import com.inventory.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -20,15 +42,53 @@ import java.util.List;
 @Tag(name = "Order API", description = "Endpoints for managing orders")
 public class OrderController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    
     private final OrderService orderService;
+    private final OrderSagaOrchestrator orderSagaOrchestrator;
+    private final IdempotencyService idempotencyService;
+    private final OrderExportService orderExportService;
     
     @PostMapping
-    @Operation(summary = "Create a new order")
+    @Operation(summary = "Create a new order as PENDING; its stock is reserved through the outbox")
     public ResponseEntity<OrderResponse> createOrder(
             @Valid @RequestBody OrderRequest orderRequest,
-            @RequestHeader("X-User-Id") String userId) {
-        OrderResponse order = orderService.createOrder(orderRequest, userId);
-        return new ResponseEntity<>(order, HttpStatus.CREATED);
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotencyService.execute("create-order", userId, idempotencyKey, orderRequest, OrderResponse.class,
+                () -> new ResponseEntity<>(orderService.createOrder(orderRequest, userId), HttpStatus.CREATED));
+    }
+    
+    @PostMapping("/async")
+    @Operation(summary = "Accept an order and reserve its stock in the background")
+    public ResponseEntity<OrderResponse> acceptOrder(
+            @Valid @RequestBody OrderRequest orderRequest,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotencyService.execute("accept-order", userId, idempotencyKey, orderRequest, OrderResponse.class,
+                () -> {
+                    OrderResponse order = orderService.acceptOrder(orderRequest, userId);
+                    return ResponseEntity.accepted()
+                            .location(URI.create("/api/orders/" + order.getId()))
+                            .body(order);
+                });
+    }
+    
+    @PostMapping("/checkout")
+    @Operation(summary = "Place an order, holding its stock and taking payment in the background")
+    public ResponseEntity<OrderResponse> checkout(
+            @Valid @RequestBody CheckoutRequest checkoutRequest,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotencyService.execute("checkout", userId, idempotencyKey, checkoutRequest, OrderResponse.class,
+                () -> {
+                    OrderResponse order = orderService.checkout(checkoutRequest, userId);
+                    return ResponseEntity.accepted()
+                            .location(URI.create("/api/orders/" + order.getId() + "/saga"))
+                            .body(order);
+                });
     }
     
     @GetMapping
@@ -38,11 +98,74 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
     
+    @GetMapping("/page")
+    @Operation(summary = "Get orders one keyset page at a time")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> getOrdersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        CursorPageResponse<OrderResponse> page = orderService.getOrdersPage(cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping(value = "/stream", produces = NDJSON)
+    @Operation(summary = "Stream all orders as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> streamOrders() {
+        StreamingResponseBody body = outputStream ->
+                orderService.streamOrders(new BufferedOutputStream(outputStream));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export the orders placed in a date range as CSV or newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean flattenItems,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = outputStream -> {
+            try (OutputStream out = gzip
+                    ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE)
+                    : new BufferedOutputStream(outputStream, EXPORT_BUFFER_SIZE)) {
+                orderExportService.export(from, to, format, flattenItems, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("orders-" + from.toLocalDate() + "-" + to.toLocalDate() + "."
+                                + format.getExtension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
     @GetMapping("/{orderId}")
     @Operation(summary = "Get order by ID")
-    public ResponseEntity<OrderResponse> getOrderById(@PathVariable String orderId) {
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable String orderId, WebRequest webRequest) {
         OrderResponse order = orderService.getOrderById(orderId);
-        return ResponseEntity.ok(order);
+        String eTag = ETags.of(order.getVersion());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(order);
+    }
+    
+    @GetMapping("/{orderId}/saga")
+    @Operation(summary = "Get the progress of an order's checkout saga")
+    public ResponseEntity<OrderSagaResponse> getOrderSaga(@PathVariable String orderId) {
+        OrderSagaResponse saga = orderSagaOrchestrator.getSaga(orderId);
+        return ResponseEntity.ok(saga);
     }
     
     @GetMapping("/customer/{customerId}")
@@ -52,6 +175,20 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
     
+    @GetMapping("/customer/{customerId}/history")
+    @Operation(summary = "Get a customer's orders newest first, one keyset page at a time")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> getCustomerOrderHistory(
+            @PathVariable String customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        CursorPageResponse<OrderResponse> page = orderService.getCustomerOrderHistory(
+                customerId, cursor, limit, status, from, to);
+        return ResponseEntity.ok(page);
+    }
+    
     @GetMapping("/status/{status}")
     @Operation(summary = "Get orders by status")
     public ResponseEntity<List<OrderResponse>> getOrdersByStatus(
@@ -60,13 +197,40 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
     
+    @PutMapping("/status")
+    @Operation(summary = "Move many orders, named by ID or by filter, to one status")
+    public ResponseEntity<BulkStatusUpdateResponse> bulkUpdateOrderStatus(
+            @Valid @RequestBody BulkStatusUpdateRequest request,
+            @RequestHeader("X-User-Id") String userId) {
+        BulkStatusUpdateResponse response = orderService.bulkUpdateOrderStatus(request, userId);
+        return ResponseEntity.ok(response);
+    }
+    
     @PutMapping("/{orderId}/status")
     @Operation(summary = "Update order status")
     public ResponseEntity<OrderResponse> updateOrderStatus(
             @PathVariable String orderId,
             @RequestParam Order.OrderStatus status,
-            @RequestHeader("X-User-Id") String userId) {
-        OrderResponse updatedOrder = orderService.updateOrderStatus(orderId, status, userId);
-        return ResponseEntity.ok(updatedOrder);
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        OrderResponse updatedOrder = orderService.updateOrderStatus(
+                orderId, status, userId, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updatedOrder.getVersion())).body(updatedOrder);
+    }
+    
+    @PutMapping("/payment-status")
+    @Operation(summary = "Record a batch of payment statuses reported by the payment service")
+    public ResponseEntity<PaymentStatusBatchResponse> updateOrderPaymentStatuses(
+            @Valid @RequestBody PaymentStatusBatchRequest request) {
+        return ResponseEntity.ok(orderService.updatePaymentStatuses(request.getUpdates()));
+    }
+    
+    @PutMapping("/{orderId}/payment-status")
+    @Operation(summary = "Record the payment status reported by the payment service")
+    public ResponseEntity<OrderResponse> updateOrderPaymentStatus(
+            @PathVariable String orderId,
+            @RequestParam Order.PaymentStatus status) {
+        OrderResponse updatedOrder = orderService.updatePaymentStatus(orderId, status);
+        return ResponseEntity.ok().eTag(ETags.of(updatedOrder.getVersion())).body(updatedOrder);
     }
 }
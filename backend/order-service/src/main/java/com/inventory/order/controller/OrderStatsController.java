@@ -0,0 +1,44 @@
+package com.inventory.order.controller;
+
+import com.inventory.order.dto.OrderStatsResponse;
+import com.inventory.order.dto.StatsRebuildResponse;
+import com.inventory.order.model.OrderStatsBucket;
+import com.inventory.order.service.OrderStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/orders/stats")
+@RequiredArgsConstructor
+@Tag(name = "Order Stats API", description = "Pre-aggregated order counts and amounts over time")
+public class OrderStatsController {
+    
+    private final OrderStatsService orderStatsService;
+    
+    @GetMapping
+    @Operation(summary = "Get order counts and amounts by status per minute, hour or day")
+    public ResponseEntity<OrderStatsResponse> getOrderStats(
+            @RequestParam(defaultValue = "HOUR") OrderStatsBucket.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        OrderStatsResponse stats = orderStatsService.getStats(granularity, from, to);
+        return ResponseEntity.ok(stats);
+    }
+    
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild every stats bucket from order history")
+    public ResponseEntity<StatsRebuildResponse> rebuildOrderStats() {
+        StatsRebuildResponse response = orderStatsService.rebuild();
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,27 @@
+package com.inventory.order.controller;
+
+import com.inventory.order.dto.OutboxStatsResponse;
+import com.inventory.order.service.OutboxRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/orders/outbox")
+@RequiredArgsConstructor
+@Tag(name = "Order Outbox API", description = "Delivery state of order side effects")
+public class OutboxController {
+    
+    private final OutboxRelay outboxRelay;
+    
+    @GetMapping("/stats")
+    @Operation(summary = "Get outbox queue depth and delivery lag")
+    public ResponseEntity<OutboxStatsResponse> getOutboxStats() {
+        OutboxStatsResponse stats = outboxRelay.stats();
+        return ResponseEntity.ok(stats);
+    }
+}
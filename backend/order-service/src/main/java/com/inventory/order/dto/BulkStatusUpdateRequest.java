@@ -0,0 +1,41 @@
+package com.inventory.order.dto;
+
+import com.inventory.order.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Names the orders either by ID or by filter, not both
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+    
+    private List<String> orderIds;
+    
+    @Valid
+    private Filter filter;
+    
+    @NotNull(message = "Target status is required")
+    private Order.OrderStatus status;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Filter {
+        
+        @NotNull(message = "Filter status is required")
+        private Order.OrderStatus status;
+        // Order date range; from is inclusive, to exclusive
+        private LocalDateTime from;
+        private LocalDateTime to;
+    }
+}
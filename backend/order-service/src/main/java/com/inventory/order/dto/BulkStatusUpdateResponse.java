@@ -0,0 +1,43 @@
+package com.inventory.order.dto;
+
+import com.inventory.order.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResponse {
+    
+    private Order.OrderStatus status;
+    private int requested;
+    private int updated;
+    private long elapsedMs;
+    private List<Result> results;
+    
+    public enum Outcome {
+        UPDATED,
+        // Already in the target status
+        UNCHANGED,
+        // The order's current status cannot move to the target
+        INVALID_TRANSITION,
+        NOT_FOUND
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        
+        private String orderId;
+        private Outcome outcome;
+        // The status the order is left in; null when it was not found
+        private Order.OrderStatus currentStatus;
+    }
+}
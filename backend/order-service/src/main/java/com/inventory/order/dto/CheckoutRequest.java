@@ -0,0 +1,26 @@
+package com.inventory.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequest {
+    
+    @Valid
+    @NotNull(message = "Order is required")
+    private OrderRequest order;
+    
+    @NotBlank(message = "Payment method is required")
+    private String paymentMethod;
+    
+    private String paymentGateway;
+}
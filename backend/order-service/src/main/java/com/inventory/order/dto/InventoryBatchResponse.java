@@ -0,0 +1,44 @@
+package com.inventory.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBatchResponse {
+    
+    private List<Result> results;
+    private List<String> notFoundIds;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        
+        private String id;
+        private boolean found;
+        private Item item;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        
+        private String id;
+        private String name;
+        private String category;
+        private int availableQuantity;
+        private BigDecimal price;
+        private String status;
+    }
+}
@@ -0,0 +1,19 @@
+package com.inventory.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryHoldRequest {
+    
+    private String referenceId;
+    private List<InventoryReservationRequest.Line> items;
+    private Long ttlSeconds;
+}
@@ -0,0 +1,22 @@
+package com.inventory.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryHoldResponse {
+    
+    private String holdId;
+    private String referenceId;
+    private String status;
+    private List<String> insufficientProductIds;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,19 @@
+package com.inventory.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReleaseRequest {
+    
+    private List<InventoryReservationRequest.Line> items;
+    // Set when the reservation is known to have succeeded, so inventory releases it even if its record has expired
+    private boolean confirmed;
+}
@@ -0,0 +1,19 @@
+package com.inventory.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReservationResponse {
+    
+    private String referenceId;
+    private String status;
+    private List<String> insufficientProductIds;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Digits;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -28,5 +29,6 @@ public class OrderItemDto {
     
     @NotNull(message = "Unit price is required")
     @Min(value = 0, message = "Unit price cannot be negative")
+    @Digits(integer = 15, fraction = 2, message = "Unit price must have at most 2 decimal places")
     private BigDecimal unitPrice;
 }
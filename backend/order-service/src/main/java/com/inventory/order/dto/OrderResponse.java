@@ -1,6 +1,7 @@
 package com.inventory.order.dto;
 
 import com.inventory.order.model.Order;
+import com.inventory.order.model.OrderStatusChange;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +24,9 @@ public class OrderResponse {
     private List<OrderItemDto> items;
     private BigDecimal totalAmount;
     private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+    private List<OrderStatusChange> statusHistory;
 }
@@ -0,0 +1,28 @@
+package com.inventory.order.dto;
+
+import com.inventory.order.model.OrderSaga;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSagaResponse {
+    
+    private String orderId;
+    private OrderSaga.SagaStatus status;
+    private OrderSaga.Step stock;
+    private OrderSaga.Step payment;
+    private OrderSaga.Step confirmation;
+    private boolean cancelRequested;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
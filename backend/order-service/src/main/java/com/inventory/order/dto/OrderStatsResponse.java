@@ -0,0 +1,36 @@
+package com.inventory.order.dto;
+
+import com.inventory.order.model.OrderStatsBucket;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsResponse {
+    
+    private OrderStatsBucket.Granularity granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // Only buckets with orders are listed
+    private List<Bucket> buckets;
+    // Per status across the whole range
+    private Map<String, OrderStatsBucket.Totals> totals;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        
+        private LocalDateTime bucketStart;
+        private Map<String, OrderStatsBucket.Totals> statuses;
+    }
+}
@@ -0,0 +1,21 @@
+package com.inventory.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatsResponse {
+    
+    private long pendingEvents;
+    private long failedEvents;
+    private LocalDateTime oldestPendingCreatedAt;
+    // Age of the oldest undelivered event; zero when the outbox is drained
+    private long lagMs;
+}
@@ -0,0 +1,21 @@
+package com.inventory.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRequest {
+    
+    private String orderId;
+    private String customerId;
+    private BigDecimal amount;
+    private String paymentMethod;
+    private String paymentGateway;
+}
@@ -0,0 +1,21 @@
+package com.inventory.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentResponse {
+    
+    private String id;
+    private String orderId;
+    private BigDecimal amount;
+    private String status;
+    private String transactionId;
+}
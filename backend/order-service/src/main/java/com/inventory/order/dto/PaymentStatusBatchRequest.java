@@ -0,0 +1,40 @@
+package com.inventory.order.dto;
+
+import com.inventory.order.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+// Payment statuses reported by the payment service's notification relay, applied in order
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusBatchRequest {
+    
+    @Valid
+    @NotEmpty(message = "Batch must contain at least one update")
+    @Size(max = 500, message = "At most 500 payment statuses can be recorded at once")
+    private List<Update> updates;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Update {
+        
+        @NotBlank(message = "Order ID is required")
+        private String orderId;
+        
+        @NotNull(message = "Payment status is required")
+        private Order.PaymentStatus status;
+    }
+}
@@ -0,0 +1,38 @@
+package com.inventory.order.dto;
+
+import com.inventory.order.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusBatchResponse {
+    
+    // One per update, in request order
+    private List<Result> results;
+    
+    public enum Outcome {
+        UPDATED,
+        // Already had the status, or was refunded before it
+        UNCHANGED,
+        NOT_FOUND
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        
+        private String orderId;
+        private Outcome outcome;
+        // The payment status the order is left with; null when it was not found
+        private Order.PaymentStatus paymentStatus;
+    }
+}
@@ -0,0 +1,8 @@
+package com.inventory.order.exception;
+
+public class InsufficientInventoryException extends RuntimeException {
+    
+    public InsufficientInventoryException(String message) {
+        super(message);
+    }
+}
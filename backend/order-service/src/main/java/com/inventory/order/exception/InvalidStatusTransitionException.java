@@ -0,0 +1,8 @@
+package com.inventory.order.exception;
+
+public class InvalidStatusTransitionException extends RuntimeException {
+    
+    public InvalidStatusTransitionException(String message) {
+        super(message);
+    }
+}
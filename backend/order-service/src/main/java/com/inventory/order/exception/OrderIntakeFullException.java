@@ -0,0 +1,8 @@
+package com.inventory.order.exception;
+
+public class OrderIntakeFullException extends RuntimeException {
+    
+    public OrderIntakeFullException(String message) {
+        super(message);
+    }
+}
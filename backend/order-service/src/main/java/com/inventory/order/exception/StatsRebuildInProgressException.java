@@ -0,0 +1,8 @@
+package com.inventory.order.exception;
+
+public class StatsRebuildInProgressException extends RuntimeException {
+    
+    public StatsRebuildInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,129 @@
+package com.inventory.order.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+// An amount of money as a whole number of minor units (paise for INR) in one currency. Arithmetic is exact long
+// arithmetic that throws ArithmeticException on overflow or when currencies differ. Decimal amounts are converted
+// only at the edges: exactly, or with a rounding mode the caller names.
+public final class Money implements Comparable<Money> {
+    
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("INR");
+    
+    private final long minorUnits;
+    private final Currency currency;
+    
+    private Money(long minorUnits, Currency currency) {
+        if (currency.getDefaultFractionDigits() < 0) {
+            throw new IllegalArgumentException("Currency " + currency + " has no minor unit");
+        }
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+    
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, Objects.requireNonNull(currency, "currency"));
+    }
+    
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+    
+    public static Money zero(Currency currency) {
+        return ofMinor(0, currency);
+    }
+    
+    public static Money zero() {
+        return ofMinor(0);
+    }
+    
+    // Exact: an amount with more decimals than the default currency allows is rejected, not rounded
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY, RoundingMode.UNNECESSARY);
+    }
+    
+    public static Money of(BigDecimal amount, Currency currency, RoundingMode rounding) {
+        BigDecimal scaled = amount.setScale(currency.getDefaultFractionDigits(), rounding);
+        return new Money(scaled.unscaledValue().longValueExact(), currency);
+    }
+    
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+    
+    public Currency getCurrency() {
+        return currency;
+    }
+    
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+    
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+    
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+    
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+    
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+    
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+    
+    // JSON carries the amount in major units, as the BigDecimal fields it replaces did
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return currency.getCurrencyCode() + " " + toBigDecimal().toPlainString();
+    }
+    
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new ArithmeticException("Cannot combine " + currency + " with " + other.currency);
+        }
+    }
+}
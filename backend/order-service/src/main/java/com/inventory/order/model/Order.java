@@ -5,35 +5,76 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "orders")
+// Serves customer order history newest first; _id breaks ties between orders placed in the same millisecond
+@CompoundIndex(name = "customer_order_date_idx", def = "{'customerId': 1, 'orderDate': -1, '_id': -1}")
 public class Order {
     
     @Id
     private String id;
     private String customerId;
     private String customerName;
+    @Indexed
     private LocalDateTime orderDate;
     private List<OrderItem> items;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
+    @Indexed
     private OrderStatus status;
+    // Reported by the payment service; null until it has settled a payment for the order
+    private PaymentStatus paymentStatus;
     private String createdBy;
     private LocalDateTime createdAt;
+    // Serves the stats rebuild's replay of orders written while it scanned
+    @Indexed
     private LocalDateTime updatedAt;
+    // Bumped by every save; exposed to clients as the ETag
+    @Version
+    private Long version;
+    // Appended to by every status change, oldest first
+    private List<OrderStatusChange> statusHistory;
     
     public enum OrderStatus {
+        // Accepted by the async intake; stock not reserved yet
+        PENDING,
         PROCESSING,
         SHIPPED,
         COMPLETED,
-        CANCELLED
+        CANCELLED,
+        // Async intake could not reserve stock for every line
+        REJECTED;
+        
+        private Set<OrderStatus> next;
+        
+        static {
+            PENDING.next = EnumSet.of(PROCESSING, CANCELLED, REJECTED);
+            PROCESSING.next = EnumSet.of(SHIPPED, CANCELLED);
+            SHIPPED.next = EnumSet.of(COMPLETED);
+            COMPLETED.next = EnumSet.noneOf(OrderStatus.class);
+            CANCELLED.next = EnumSet.noneOf(OrderStatus.class);
+            REJECTED.next = EnumSet.noneOf(OrderStatus.class);
+        }
+        
+        public boolean canTransitionTo(OrderStatus status) {
+            return next.contains(status);
+        }
+    }
+    
+    public enum PaymentStatus {
+        PAID,
+        REFUNDED
     }
 }
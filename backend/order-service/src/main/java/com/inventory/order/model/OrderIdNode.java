@@ -0,0 +1,24 @@
+package com.inventory.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Lease on one node number of the order ID generator; a live lease keeps two replicas from sharing a node
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "order_id_nodes")
+public class OrderIdNode {
+    
+    @Id
+    private Integer nodeId;
+    private String owner;
+    private LocalDateTime leaseUntil;
+}
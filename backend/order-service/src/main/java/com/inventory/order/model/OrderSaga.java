@@ -0,0 +1,83 @@
+package com.inventory.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Progress of one order through reserve stock and take payment (in parallel), then confirm. Each step records the
+// remote resource it created, so a saga resumed after a restart finishes or undoes it instead of repeating it.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "order_sagas")
+@CompoundIndex(name = "status_lease_until_idx", def = "{'status': 1, 'leaseUntil': 1}")
+public class OrderSaga {
+    
+    @Id
+    private String orderId;
+    private SagaStatus status;
+    private String paymentMethod;
+    private String paymentGateway;
+    private Step stock;
+    private Step payment;
+    private Step confirmation;
+    // Set when the order is cancelled; the saga compensates instead of confirming, or refunds once confirmed
+    private boolean cancelRequested;
+    private int attempts;
+    private String lastError;
+    // Only the instance holding an unexpired lease advances the saga; an expired lease is picked up by recovery
+    private LocalDateTime leaseUntil;
+    // Token of the run holding the lease; step results are only written while it still matches
+    private String leaseOwner;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    // Finished sagas are kept for 30 days
+    @Indexed(expireAfterSeconds = 2592000)
+    private LocalDateTime finishedAt;
+    
+    public enum SagaStatus {
+        RUNNING,
+        COMPENSATING,
+        COMPLETED,
+        COMPENSATED,
+        // Compensation gave up after max-attempts and needs an operator
+        FAILED
+    }
+    
+    public enum StepStatus {
+        PENDING,
+        // Request sent without a known outcome; the remote side is asked before the step is retried
+        IN_PROGRESS,
+        SUCCEEDED,
+        FAILED,
+        COMPENSATED
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Step {
+        
+        private StepStatus status;
+        // Hold ID for the stock step, payment ID for the payment step
+        private String reference;
+        private String error;
+        private LocalDateTime updatedAt;
+        
+        public static Step pending() {
+            return Step.builder()
+                    .status(StepStatus.PENDING)
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+        }
+    }
+}
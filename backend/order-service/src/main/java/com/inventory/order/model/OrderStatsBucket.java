@@ -0,0 +1,80 @@
+package com.inventory.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+// Order count and amount for one minute, hour or day of orderDate, split by the orders' current status. Buckets
+// are moved incrementally as orders are written and can be rebuilt from the orders collection.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "order_stats")
+@CompoundIndex(name = "granularity_bucket_start_idx", def = "{'granularity': 1, 'bucketStart': 1}")
+public class OrderStatsBucket {
+    
+    // 2: amounts are Money in minor units. Buckets without a version hold Decimal128 amounts and are rebuilt
+    public static final int SCHEMA_VERSION = 2;
+    
+    @Id
+    private String id;
+    private Granularity granularity;
+    private LocalDateTime bucketStart;
+    private Map<String, Totals> statuses;
+    private int schemaVersion;
+    // Minute and hour buckets are dropped once past their retention; day buckets have no expiry
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+    
+    public static String idOf(Granularity granularity, LocalDateTime bucketStart) {
+        return granularity + ":" + bucketStart;
+    }
+    
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES, Duration.ofDays(7)),
+        HOUR(ChronoUnit.HOURS, Duration.ofDays(90)),
+        DAY(ChronoUnit.DAYS, null);
+        
+        private final ChronoUnit unit;
+        private final Duration retention;
+        
+        Granularity(ChronoUnit unit, Duration retention) {
+            this.unit = unit;
+            this.retention = retention;
+        }
+        
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+        
+        public LocalDateTime bucketStart(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+        
+        public LocalDateTime expiresAt(LocalDateTime bucketStart) {
+            return retention == null ? null : bucketStart.plus(retention).plus(1, unit);
+        }
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Totals {
+        
+        private long count;
+        // Incremental updates $inc its minor units
+        private Money amount;
+    }
+}
@@ -0,0 +1,23 @@
+package com.inventory.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One entry of an order's status history; changedBy is the user, or "system" for the intake, relay and saga
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChange {
+    
+    // Unique per write, so a bulk update can find exactly the orders it moved
+    private String changeId;
+    private Order.OrderStatus from;
+    private Order.OrderStatus to;
+    private String changedBy;
+    private LocalDateTime changedAt;
+}
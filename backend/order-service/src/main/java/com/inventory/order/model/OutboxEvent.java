@@ -0,0 +1,52 @@
+package com.inventory.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// A cross-service side effect recorded in the same transaction as the order that caused it
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "order_outbox")
+@CompoundIndex(name = "status_next_attempt_at_idx", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class OutboxEvent {
+    
+    @Id
+    private String id;
+    @Indexed
+    private String aggregateId;
+    private EventType type;
+    private String payload;
+    // Key the receiver deduplicates on, so a redelivered event takes effect once
+    private String idempotencyKey;
+    private EventStatus status;
+    private int attempts;
+    // Due time for the next delivery; a relay claiming the event pushes it forward as a lease
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime createdAt;
+    // Delivered events are kept for a week
+    @Indexed(expireAfterSeconds = 604800)
+    private LocalDateTime sentAt;
+    
+    public enum EventType {
+        RESERVE_STOCK,
+        // Written with the move to CANCELLED or REJECTED; inventory ignores it if nothing was reserved
+        RELEASE_STOCK
+    }
+    
+    public enum EventStatus {
+        PENDING,
+        SENT,
+        FAILED
+    }
+}
@@ -0,0 +1,9 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.OrderIdNode;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderIdNodeRepository extends MongoRepository<OrderIdNode, Integer>, OrderIdNodeRepositoryCustom {
+}
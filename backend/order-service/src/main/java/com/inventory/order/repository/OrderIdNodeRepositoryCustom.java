@@ -0,0 +1,9 @@
+package com.inventory.order.repository;
+
+import java.time.LocalDateTime;
+
+public interface OrderIdNodeRepositoryCustom {
+    
+    // Takes or renews the lease on a node number that is free, expired or already held by this owner
+    boolean claim(int nodeId, String owner, LocalDateTime now, LocalDateTime leaseUntil);
+}
@@ -0,0 +1,34 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.OrderIdNode;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class OrderIdNodeRepositoryImpl implements OrderIdNodeRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public boolean claim(int nodeId, String owner, LocalDateTime now, LocalDateTime leaseUntil) {
+        Query query = new Query(Criteria.where("_id").is(nodeId)
+                .orOperator(Criteria.where("leaseUntil").lt(now), Criteria.where("owner").is(owner)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("leaseUntil", leaseUntil);
+        try {
+            UpdateResult result = mongoTemplate.upsert(query, update, OrderIdNode.class);
+            return result.getMatchedCount() == 1 || result.getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // The node exists with a live lease held by another owner, so the upsert tried to insert it again
+            return false;
+        }
+    }
+}
@@ -2,13 +2,15 @@ package com.inventory.order.repository;
 
 import com.inventory.order.model.Order;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends MongoRepository<Order, String>, OrderRepositoryCustom {
     
     List<Order> findByCustomerId(String customerId);
     
@@ -17,4 +19,15 @@ public interface OrderRepository extends MongoRepository<Order, String> {
     List<Order> findByOrderDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     
     List<Order> findByCustomerNameContainingIgnoreCase(String customerName);
+    
+    @Query("{}")
+    Stream<Order> streamAllBy();
+    
+    // Cursor over the orders placed in [from, to), oldest first
+    @Query(value = "{ 'orderDate': { '$gte': ?0, '$lt': ?1 } }", sort = "{ 'orderDate': 1 }")
+    Stream<Order> streamByOrderDate(LocalDateTime from, LocalDateTime to);
+    
+    // Cursor over the orders written at or after since
+    @Query("{ 'updatedAt': { '$gte': ?0 } }")
+    Stream<Order> streamByUpdatedAtFrom(LocalDateTime since);
 }
@@ -0,0 +1,43 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.Order;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+    
+    // Keyset page ordered by _id; afterId is exclusive and null for the first page
+    List<Order> findPageAfter(String afterId, int limit);
+    
+    // Keyset page of one customer's orders, newest first. The page starts after (beforeDate, beforeId), both null
+    // for the first page; status, from (inclusive) and to (exclusive) are optional filters
+    List<Order> findCustomerPage(String customerId, LocalDateTime beforeDate, String beforeId,
+                                 Order.OrderStatus status, LocalDateTime from, LocalDateTime to, int limit);
+    
+    // Moves the orders to the new status only while they are still in the expected one; returns the orders moved
+    List<Order> updateStatusIf(Collection<String> ids, Order.OrderStatus expected, Order.OrderStatus status);
+    
+    List<Order> updateStatusIf(Collection<String> ids, Order.OrderStatus expected, Order.OrderStatus status,
+                               String changedBy);
+    
+    // Orders with only their _id and status loaded
+    List<Order> findStatusesById(Collection<String> ids);
+    
+    // IDs of the orders in the status whose orderDate is within [from, to); either bound may be null
+    List<String> findIdsByStatus(Order.OrderStatus status, LocalDateTime from, LocalDateTime to, int limit);
+    
+    // Moves one order from the expected status, and version when given, to the new one and records the change in
+    // its history in the same write. Returns the updated order, or null when it was no longer in that state
+    Order transitionStatus(String id, Order.OrderStatus expected, Long expectedVersion, Order.OrderStatus status,
+                           String changedBy);
+    
+    // Records the payment status unless the order was already refunded, so a late PAID never undoes a refund.
+    // A repeated delivery of the current status writes nothing, so the version (and ETag) stays put. Returns the
+    // updated order, or null when it is missing, already refunded or already has the status
+    Order updatePaymentStatus(String id, Order.PaymentStatus paymentStatus, LocalDateTime now);
+    
+    // Reads only the ID and payment status of the given orders
+    List<Order> findPaymentStatusesById(Collection<String> ids);
+}
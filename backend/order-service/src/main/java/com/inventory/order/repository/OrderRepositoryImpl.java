@@ -0,0 +1,162 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.Order;
+import com.inventory.order.model.OrderStatusChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+    
+    private static final String SYSTEM = "system";
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public List<Order> findPageAfter(String afterId, int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(afterId));
+        }
+        return mongoTemplate.find(query, Order.class);
+    }
+    
+    @Override
+    public List<Order> findCustomerPage(String customerId, LocalDateTime beforeDate, String beforeId,
+                                        Order.OrderStatus status, LocalDateTime from, LocalDateTime to, int limit) {
+        Criteria criteria = Criteria.where("customerId").is(customerId);
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+        if (from != null || to != null) {
+            Criteria orderDate = criteria.and("orderDate");
+            if (from != null) {
+                orderDate.gte(from);
+            }
+            if (to != null) {
+                orderDate.lt(to);
+            }
+        }
+        if (beforeDate != null) {
+            // Seek straight to the cursor position on the (customerId, orderDate, _id) index instead of skipping
+            criteria.orOperator(
+                    Criteria.where("orderDate").lt(beforeDate),
+                    Criteria.where("orderDate").is(beforeDate).and("_id").lt(beforeId));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "orderDate", "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Order.class);
+    }
+    
+    @Override
+    public List<Order> updateStatusIf(Collection<String> ids, Order.OrderStatus expected, Order.OrderStatus status) {
+        return updateStatusIf(ids, expected, status, SYSTEM);
+    }
+    
+    @Override
+    public List<Order> updateStatusIf(Collection<String> ids, Order.OrderStatus expected, Order.OrderStatus status,
+                                      String changedBy) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (!expected.canTransitionTo(status)) {
+            throw new IllegalArgumentException("Orders cannot move from " + expected + " to " + status);
+        }
+        String changeId = UUID.randomUUID().toString();
+        Query query = new Query(Criteria.where("_id").in(ids).and("status").is(expected));
+        Update update = statusUpdate(changeId, expected, status, changedBy, LocalDateTime.now());
+        if (mongoTemplate.updateMulti(query, update, Order.class).getModifiedCount() == 0) {
+            return Collections.emptyList();
+        }
+        // The orders this call moved are the ones whose history holds its change
+        return mongoTemplate.find(new Query(Criteria.where("_id").in(ids)
+                .and("statusHistory.changeId").is(changeId)), Order.class);
+    }
+    
+    @Override
+    public List<Order> findStatusesById(Collection<String> ids) {
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("status");
+        return mongoTemplate.find(query, Order.class);
+    }
+    
+    @Override
+    public List<String> findIdsByStatus(Order.OrderStatus status, LocalDateTime from, LocalDateTime to, int limit) {
+        Criteria criteria = Criteria.where("status").is(status);
+        if (from != null || to != null) {
+            Criteria orderDate = criteria.and("orderDate");
+            if (from != null) {
+                orderDate.gte(from);
+            }
+            if (to != null) {
+                orderDate.lt(to);
+            }
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Order.class).stream()
+                .map(Order::getId)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public Order transitionStatus(String id, Order.OrderStatus expected, Long expectedVersion, Order.OrderStatus status,
+                                  String changedBy) {
+        Criteria criteria = Criteria.where("_id").is(id).and("status").is(expected);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        return mongoTemplate.findAndModify(new Query(criteria),
+                statusUpdate(UUID.randomUUID().toString(), expected, status, changedBy, LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                Order.class);
+    }
+    
+    @Override
+    public Order updatePaymentStatus(String id, Order.PaymentStatus paymentStatus, LocalDateTime now) {
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and("paymentStatus").nin(Order.PaymentStatus.REFUNDED, paymentStatus));
+        Update update = new Update()
+                .set("paymentStatus", paymentStatus)
+                .set("updatedAt", now)
+                .inc("version", 1L);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Order.class);
+    }
+    
+    @Override
+    public List<Order> findPaymentStatusesById(Collection<String> ids) {
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("paymentStatus");
+        return mongoTemplate.find(query, Order.class);
+    }
+    
+    private static Update statusUpdate(String changeId, Order.OrderStatus from, Order.OrderStatus to,
+                                       String changedBy, LocalDateTime now) {
+        return new Update()
+                .set("status", to)
+                .set("updatedAt", now)
+                .inc("version", 1L)
+                .push("statusHistory", OrderStatusChange.builder()
+                        .changeId(changeId)
+                        .from(from)
+                        .to(to)
+                        .changedBy(changedBy)
+                        .changedAt(now)
+                        .build());
+    }
+}
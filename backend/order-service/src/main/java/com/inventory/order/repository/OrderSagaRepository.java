@@ -0,0 +1,17 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.OrderSaga;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderSagaRepository extends MongoRepository<OrderSaga, String>, OrderSagaRepositoryCustom {
+    
+    List<OrderSaga> findByStatusInAndLeaseUntilLessThanEqual(
+            Collection<OrderSaga.SagaStatus> statuses, LocalDateTime dueBy, Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.OrderSaga;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface OrderSagaRepositoryCustom {
+    
+    // Takes the lease on an unfinished saga whose previous lease has run out
+    boolean claim(String orderId, String owner, LocalDateTime now, LocalDateTime leaseUntil);
+    
+    // False once another run has claimed the saga, or it has finished
+    boolean renewLease(String orderId, String owner, LocalDateTime leaseUntil);
+    
+    // False if the lease has passed to another run, whose results are left alone
+    boolean updateStep(String orderId, String owner, String step, OrderSaga.Step value);
+    
+    // Moving to COMPLETED also requires that no cancellation was requested
+    boolean transition(String orderId, OrderSaga.SagaStatus from, OrderSaga.SagaStatus to);
+    
+    void scheduleRetry(String orderId, String owner, int attempts, LocalDateTime leaseUntil, String error);
+    
+    Optional<OrderSaga> requestCancellation(String orderId);
+}
@@ -0,0 +1,95 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.OrderSaga;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class OrderSagaRepositoryImpl implements OrderSagaRepositoryCustom {
+    
+    private static final List<OrderSaga.SagaStatus> UNFINISHED =
+            Arrays.asList(OrderSaga.SagaStatus.RUNNING, OrderSaga.SagaStatus.COMPENSATING);
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public boolean claim(String orderId, String owner, LocalDateTime now, LocalDateTime leaseUntil) {
+        Query query = new Query(Criteria.where("_id").is(orderId)
+                .and("status").in(UNFINISHED)
+                .and("leaseUntil").lte(now));
+        Update update = new Update()
+                .set("leaseUntil", leaseUntil)
+                .set("leaseOwner", owner);
+        return mongoTemplate.updateFirst(query, update, OrderSaga.class).getModifiedCount() == 1;
+    }
+    
+    // Renewing an expired lease is fine as long as nobody has claimed it in the meantime
+    @Override
+    public boolean renewLease(String orderId, String owner, LocalDateTime leaseUntil) {
+        Query query = new Query(Criteria.where("_id").is(orderId)
+                .and("status").in(UNFINISHED)
+                .and("leaseOwner").is(owner));
+        return mongoTemplate.updateFirst(query, Update.update("leaseUntil", leaseUntil), OrderSaga.class)
+                .getModifiedCount() == 1;
+    }
+    
+    // Steps run concurrently, so each one sets only its own field rather than saving the whole document
+    @Override
+    public boolean updateStep(String orderId, String owner, String step, OrderSaga.Step value) {
+        return mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(orderId).and("leaseOwner").is(owner)),
+                new Update()
+                        .set(step, value)
+                        .set("updatedAt", LocalDateTime.now()),
+                OrderSaga.class).getModifiedCount() == 1;
+    }
+    
+    @Override
+    public boolean transition(String orderId, OrderSaga.SagaStatus from, OrderSaga.SagaStatus to) {
+        Criteria criteria = Criteria.where("_id").is(orderId).and("status").is(from);
+        if (to == OrderSaga.SagaStatus.COMPLETED) {
+            criteria.and("cancelRequested").ne(true);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", to)
+                .set("attempts", 0)
+                .set("updatedAt", now);
+        if (to == OrderSaga.SagaStatus.COMPLETED || to == OrderSaga.SagaStatus.COMPENSATED) {
+            update.set("finishedAt", now).set("leaseUntil", now).unset("lastError");
+        }
+        return mongoTemplate.updateFirst(new Query(criteria), update, OrderSaga.class).getModifiedCount() == 1;
+    }
+    
+    @Override
+    public void scheduleRetry(String orderId, String owner, int attempts, LocalDateTime leaseUntil, String error) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(orderId).and("leaseOwner").is(owner)),
+                new Update()
+                        .set("attempts", attempts)
+                        .set("leaseUntil", leaseUntil)
+                        .set("lastError", error)
+                        .set("updatedAt", LocalDateTime.now()),
+                OrderSaga.class);
+    }
+    
+    @Override
+    public Optional<OrderSaga> requestCancellation(String orderId) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(orderId)),
+                new Update()
+                        .set("cancelRequested", true)
+                        .set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                OrderSaga.class));
+    }
+}
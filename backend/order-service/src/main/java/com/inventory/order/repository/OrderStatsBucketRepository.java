@@ -0,0 +1,18 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.OrderStatsBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderStatsBucketRepository
+        extends MongoRepository<OrderStatsBucket, String>, OrderStatsBucketRepositoryCustom {
+    
+    List<OrderStatsBucket> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+            OrderStatsBucket.Granularity granularity, LocalDateTime from, LocalDateTime to);
+    
+    boolean existsBySchemaVersionNot(int schemaVersion);
+}
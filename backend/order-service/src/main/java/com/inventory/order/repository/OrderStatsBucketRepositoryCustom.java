@@ -0,0 +1,20 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.OrderStatsBucket;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface OrderStatsBucketRepositoryCustom {
+    
+    // Adds each delta's counts and amounts (which may be negative) to its bucket, creating missing buckets
+    void applyDeltas(Collection<OrderStatsBucket> deltas);
+    
+    // Swaps in a complete set of buckets in one step; readers never see the collection empty or half-written
+    void replaceAll(Collection<OrderStatsBucket> buckets);
+    
+    // Single-instance lock for rebuilds; false while another instance holds an unexpired one
+    boolean tryLockRebuild(String owner, LocalDateTime now, LocalDateTime lockedUntil);
+    
+    void unlockRebuild(String owner);
+}
@@ -0,0 +1,21 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String>, OutboxEventRepositoryCustom {
+    
+    List<OutboxEvent> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            OutboxEvent.EventStatus status, LocalDateTime dueBy, Pageable pageable);
+    
+    long countByStatus(OutboxEvent.EventStatus status);
+    
+    Optional<OutboxEvent> findFirstByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus status);
+}
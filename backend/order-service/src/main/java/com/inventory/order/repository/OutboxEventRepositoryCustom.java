@@ -0,0 +1,17 @@
+package com.inventory.order.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface OutboxEventRepositoryCustom {
+    
+    // Takes a due PENDING event by pushing its due time to leaseUntil; false if another relay got there first
+    boolean claim(String id, LocalDateTime dueBy, LocalDateTime leaseUntil);
+    
+    void markSent(Collection<String> ids, LocalDateTime sentAt);
+    
+    void markRetry(String id, int attempts, LocalDateTime nextAttemptAt, String error);
+    
+    // Gives up on the event after its last attempt; it stays in the collection for inspection and replay
+    void markFailed(String id, int attempts, String error);
+}
@@ -0,0 +1,62 @@
+package com.inventory.order.repository;
+
+import com.inventory.order.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class OutboxEventRepositoryImpl implements OutboxEventRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public boolean claim(String id, LocalDateTime dueBy, LocalDateTime leaseUntil) {
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and("status").is(OutboxEvent.EventStatus.PENDING)
+                .and("nextAttemptAt").lte(dueBy));
+        return mongoTemplate.updateFirst(query, Update.update("nextAttemptAt", leaseUntil), OutboxEvent.class)
+                .getModifiedCount() == 1;
+    }
+    
+    @Override
+    public void markSent(Collection<String> ids, LocalDateTime sentAt) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(ids)),
+                new Update()
+                        .set("status", OutboxEvent.EventStatus.SENT)
+                        .set("sentAt", sentAt)
+                        .unset("lastError"),
+                OutboxEvent.class);
+    }
+    
+    @Override
+    public void markRetry(String id, int attempts, LocalDateTime nextAttemptAt, String error) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(id)),
+                new Update()
+                        .set("attempts", attempts)
+                        .set("nextAttemptAt", nextAttemptAt)
+                        .set("lastError", error),
+                OutboxEvent.class);
+    }
+    
+    @Override
+    public void markFailed(String id, int attempts, String error) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(id)),
+                new Update()
+                        .set("status", OutboxEvent.EventStatus.FAILED)
+                        .set("attempts", attempts)
+                        .set("lastError", error),
+                OutboxEvent.class);
+    }
+}
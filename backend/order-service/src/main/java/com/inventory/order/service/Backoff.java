@@ -0,0 +1,22 @@
+package com.inventory.order.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Retry delays: exponential from the initial delay and capped at the maximum, then jittered into the upper half of
+// that so retries that failed together spread out without coming back early
+final class Backoff {
+    
+    private final long initialMs;
+    private final long maxMs;
+    
+    Backoff(long initialMs, long maxMs) {
+        this.initialMs = initialMs;
+        this.maxMs = maxMs;
+    }
+    
+    // The first retry is attempt 1
+    long delayMs(int attempt) {
+        long delay = Math.min(maxMs, initialMs << Math.min(attempt - 1, 30));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
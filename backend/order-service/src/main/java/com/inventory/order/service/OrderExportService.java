@@ -0,0 +1,111 @@
+package com.inventory.order.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.order.dto.ExportFormat;
+import com.inventory.order.model.Money;
+import com.inventory.order.model.Order;
+import com.inventory.order.model.OrderItem;
+import com.inventory.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Exports the orders placed in [from, to) straight from a Mongo cursor. Each row is written as soon as it is read,
+// so heap use does not grow with the export, and a client that reads slowly blocks the writes, which keeps the
+// cursor from fetching further batches until it catches up
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportService {
+    
+    private static final List<String> ORDER_COLUMNS = Arrays.asList("id", "customerId", "customerName",
+            "orderDate", "status", "totalAmount", "createdBy", "createdAt", "updatedAt");
+    private static final List<String> ITEM_COLUMNS = Arrays.asList("productId", "productName", "quantity",
+            "unitPrice", "subtotal");
+    
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    
+    // With flattenItems every order line becomes its own row carrying the order's columns; otherwise CSV rows
+    // count the lines and NDJSON rows nest them
+    public long export(LocalDateTime from, LocalDateTime to, ExportFormat format, boolean flattenItems,
+                       OutputStream outputStream) throws IOException {
+        log.info("Exporting orders placed from {} to {} as {}", from, to, format);
+        long startedAt = System.currentTimeMillis();
+        List<String> columns = new ArrayList<>(ORDER_COLUMNS);
+        if (flattenItems) {
+            columns.addAll(ITEM_COLUMNS);
+        } else {
+            columns.add("itemCount");
+        }
+        ExportWriter writer = new ExportWriter(format, columns, outputStream, objectMapper);
+        
+        long rows = 0;
+        try (Stream<Order> orders = orderRepository.streamByOrderDate(from, to)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                List<OrderItem> items = order.getItems() == null ? Collections.emptyList() : order.getItems();
+                if (flattenItems) {
+                    for (OrderItem item : items) {
+                        writer.write(itemRow(order, item));
+                        rows++;
+                    }
+                } else {
+                    Map<String, Object> row = orderRow(order);
+                    if (format == ExportFormat.NDJSON) {
+                        row.put("items", items);
+                    } else {
+                        row.put("itemCount", items.size());
+                    }
+                    writer.write(row);
+                    rows++;
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} order row(s) in {} ms", rows, System.currentTimeMillis() - startedAt);
+        return rows;
+    }
+    
+    private static Map<String, Object> orderRow(Order order) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", order.getId());
+        row.put("customerId", order.getCustomerId());
+        row.put("customerName", order.getCustomerName());
+        row.put("orderDate", order.getOrderDate());
+        row.put("status", order.getStatus());
+        row.put("totalAmount", toAmount(order.getTotalAmount()));
+        row.put("createdBy", order.getCreatedBy());
+        row.put("createdAt", order.getCreatedAt());
+        row.put("updatedAt", order.getUpdatedAt());
+        return row;
+    }
+    
+    private static Map<String, Object> itemRow(Order order, OrderItem item) {
+        Map<String, Object> row = orderRow(order);
+        row.put("productId", item.getProductId());
+        row.put("productName", item.getProductName());
+        row.put("quantity", item.getQuantity());
+        row.put("unitPrice", toAmount(item.getUnitPrice()));
+        row.put("subtotal", toAmount(item.getSubtotal()));
+        return row;
+    }
+    
+    private static BigDecimal toAmount(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+}
@@ -0,0 +1,8 @@
+package com.inventory.order.service;
+
+// Source of order IDs. IDs must be unique across every replica and should sort in creation order, so new orders
+// land at the right edge of the _id index instead of being scattered through it.
+public interface OrderIdGenerator {
+    
+    String nextId();
+}
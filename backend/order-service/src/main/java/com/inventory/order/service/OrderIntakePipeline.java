@@ -0,0 +1,179 @@
+package com.inventory.order.service;
+
+import com.inventory.order.client.InventoryClient;
+import com.inventory.order.dto.InventoryBatchReservationRequest;
+import com.inventory.order.dto.InventoryBatchReservationResponse;
+import com.inventory.order.dto.InventoryReservationResponse;
+import com.inventory.order.model.Order;
+import com.inventory.order.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Reserves stock for orders accepted by the async intake. Workers drain the queue in small batches and place
+// every order of a batch with one inventory call; a fixed number of slots bounds how many orders may wait.
+// This is the fast path only: each accepted order also has an outbox event that the relay delivers if the
+// pipeline fails or the service restarts before the order is settled.
+@Component
+@Slf4j
+public class OrderIntakePipeline {
+    
+    private static final String RESERVED = "RESERVED";
+    private static final String REJECTED = "REJECTED";
+    
+    private final OrderRepository orderRepository;
+    private final InventoryClient inventoryClient;
+    private final OrderStatsService orderStatsService;
+    private final OutboxRelay outboxRelay;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int workers;
+    
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final Semaphore slots;
+    private ExecutorService executor;
+    private volatile boolean running;
+    
+    public OrderIntakePipeline(OrderRepository orderRepository,
+                               InventoryClient inventoryClient,
+                               OrderStatsService orderStatsService,
+                               OutboxRelay outboxRelay,
+                               @Value("${order.intake.queue-capacity:1000}") int queueCapacity,
+                               @Value("${order.intake.batch-size:50}") int batchSize,
+                               @Value("${order.intake.linger-ms:10}") long lingerMs,
+                               @Value("${order.intake.workers:2}") int workers) {
+        this.orderRepository = orderRepository;
+        this.inventoryClient = inventoryClient;
+        this.orderStatsService = orderStatsService;
+        this.outboxRelay = outboxRelay;
+        this.slots = new Semaphore(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.workers = workers;
+    }
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "order-intake-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::runWorker);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    // Taken before the order is persisted, so a full pipeline turns the request away without writing anything
+    public boolean tryReserveSlot() {
+        return slots.tryAcquire();
+    }
+    
+    public void releaseSlot() {
+        slots.release();
+    }
+    
+    // The caller must hold a slot for the order
+    public void submit(String orderId) {
+        queue.add(orderId);
+    }
+    
+    private void runWorker() {
+        List<String> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                String first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Linger briefly so orders arriving together share one inventory call
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    String next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to process {} pending order(s): {}", batch.size(), e.getMessage());
+            } finally {
+                slots.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+    
+    private void process(List<String> orderIds) {
+        List<Order> orders = new ArrayList<>(orderIds.size());
+        orderRepository.findAllById(orderIds).forEach(order -> {
+            if (order.getStatus() == Order.OrderStatus.PENDING) {
+                orders.add(order);
+            }
+        });
+        if (orders.isEmpty()) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        InventoryBatchReservationResponse response;
+        try {
+            response = inventoryClient.reserveInventoryBatch(InventoryBatchReservationRequest.builder()
+                    .reservations(orders.stream()
+                            .map(OrderService::reservationRequestFor)
+                            .collect(Collectors.toList()))
+                    .build());
+        } catch (Exception e) {
+            log.error("Failed to reserve stock for {} pending order(s), leaving them for retry: {}",
+                    orders.size(), e.getMessage());
+            return;
+        }
+        
+        List<String> reserved = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        // Anything else (a reservation still in progress elsewhere) stays PENDING for the outbox relay
+        for (InventoryReservationResponse result : response.getResults()) {
+            if (RESERVED.equals(result.getStatus())) {
+                reserved.add(result.getReferenceId());
+            } else if (REJECTED.equals(result.getStatus())) {
+                rejected.add(result.getReferenceId());
+            }
+        }
+        List<Order> processing =
+                orderRepository.updateStatusIf(reserved, Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING);
+        orderStatsService.recordTransition(processing, Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING);
+        outboxRelay.releaseStranded(reserved, processing);
+        orderStatsService.recordTransition(
+                orderRepository.updateStatusIf(rejected, Order.OrderStatus.PENDING, Order.OrderStatus.REJECTED),
+                Order.OrderStatus.PENDING, Order.OrderStatus.REJECTED);
+        log.debug("Reserved {} and rejected {} order(s) in {} ms", reserved.size(), rejected.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
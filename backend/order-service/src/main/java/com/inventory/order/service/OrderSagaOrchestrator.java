@@ -0,0 +1,527 @@
+package com.inventory.order.service;
+
+import com.inventory.order.client.InventoryClient;
+import com.inventory.order.client.PaymentClient;
+import com.inventory.order.dto.InventoryHoldRequest;
+import com.inventory.order.dto.InventoryHoldResponse;
+import com.inventory.order.dto.OrderSagaResponse;
+import com.inventory.order.dto.PaymentRequest;
+import com.inventory.order.dto.PaymentResponse;
+import com.inventory.order.exception.OrderNotFoundException;
+import com.inventory.order.model.Order;
+import com.inventory.order.model.OrderSaga;
+import com.inventory.order.repository.OrderRepository;
+import com.inventory.order.repository.OrderSagaRepository;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Drives order sagas: the stock hold and the payment are requested in parallel, then the hold is committed. If either
+// step fails, or the order is cancelled, whatever succeeded is undone by releasing the hold (restocking it once
+// committed) and refunding the payment. State is persisted after every step and a lease gives each saga a single owner,
+// renewed as each step starts; sagas whose lease runs out, including those interrupted by a restart, are resumed by
+// recover(). A run that finds its lease taken over stops without writing anything further.
+@Component
+@Slf4j
+public class OrderSagaOrchestrator {
+    
+    private static final String SAGA_USER = "order-saga";
+    private static final String HELD = "HELD";
+    private static final String COMMITTED = "COMMITTED";
+    private static final String RESTOCKED = "RESTOCKED";
+    private static final String PAYMENT_COMPLETED = "COMPLETED";
+    private static final String PAYMENT_FAILED = "FAILED";
+    private static final String PAYMENT_REFUNDED = "REFUNDED";
+    private static final List<OrderSaga.SagaStatus> UNFINISHED =
+            Arrays.asList(OrderSaga.SagaStatus.RUNNING, OrderSaga.SagaStatus.COMPENSATING);
+    
+    private final OrderSagaRepository orderSagaRepository;
+    private final OrderRepository orderRepository;
+    private final InventoryClient inventoryClient;
+    private final PaymentClient paymentClient;
+    private final OrderStatsService orderStatsService;
+    private final int workers;
+    private final int queueCapacity;
+    private final Duration lease;
+    private final long holdTtlSeconds;
+    private final Backoff backoff;
+    private final int maxAttempts;
+    private final int recoveryBatchSize;
+    
+    private ExecutorService sagaExecutor;
+    private ExecutorService stepExecutor;
+    
+    public OrderSagaOrchestrator(OrderSagaRepository orderSagaRepository,
+                                 OrderRepository orderRepository,
+                                 InventoryClient inventoryClient,
+                                 PaymentClient paymentClient,
+                                 OrderStatsService orderStatsService,
+                                 @Value("${order.saga.workers:8}") int workers,
+                                 @Value("${order.saga.queue-capacity:1000}") int queueCapacity,
+                                 @Value("${order.saga.lease-ms:60000}") long leaseMs,
+                                 @Value("${order.saga.hold-ttl-seconds:900}") long holdTtlSeconds,
+                                 @Value("${order.saga.initial-backoff-ms:1000}") long initialBackoffMs,
+                                 @Value("${order.saga.max-backoff-ms:300000}") long maxBackoffMs,
+                                 @Value("${order.saga.max-attempts:10}") int maxAttempts,
+                                 @Value("${order.saga.recovery-batch-size:100}") int recoveryBatchSize) {
+        this.orderSagaRepository = orderSagaRepository;
+        this.orderRepository = orderRepository;
+        this.inventoryClient = inventoryClient;
+        this.paymentClient = paymentClient;
+        this.orderStatsService = orderStatsService;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.holdTtlSeconds = holdTtlSeconds;
+        this.backoff = new Backoff(initialBackoffMs, maxBackoffMs);
+        this.maxAttempts = maxAttempts;
+        this.recoveryBatchSize = recoveryBatchSize;
+    }
+    
+    @PostConstruct
+    public void start() {
+        sagaExecutor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("order-saga-"));
+        // Steps get their own pool so a saga waiting on its fan-out never starves the steps it waits for
+        stepExecutor = Executors.newFixedThreadPool(workers * 2, daemonThreads("order-saga-step-"));
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        sagaExecutor.shutdownNow();
+        stepExecutor.shutdownNow();
+        sagaExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        stepExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    // The caller persists the saga together with its order, then launches it
+    public OrderSaga newSaga(String orderId, String paymentMethod, String paymentGateway) {
+        LocalDateTime now = LocalDateTime.now();
+        return OrderSaga.builder()
+                .orderId(orderId)
+                .status(OrderSaga.SagaStatus.RUNNING)
+                .paymentMethod(paymentMethod)
+                .paymentGateway(paymentGateway)
+                .stock(OrderSaga.Step.pending())
+                .payment(OrderSaga.Step.pending())
+                .confirmation(OrderSaga.Step.pending())
+                .leaseUntil(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+    
+    // Does nothing if another instance owns the saga; a saga turned away by busy workers waits for recovery
+    public void launch(String orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        String owner = UUID.randomUUID().toString();
+        if (!orderSagaRepository.claim(orderId, owner, now, now.plus(lease))) {
+            return;
+        }
+        try {
+            sagaExecutor.execute(() -> advance(orderId, owner));
+        } catch (RejectedExecutionException e) {
+            log.warn("Saga workers are busy, leaving saga for order {} to recovery", orderId);
+        }
+    }
+    
+    // Also runs right after startup, so sagas interrupted by a restart resume once their lease has run out
+    @Scheduled(fixedDelayString = "${order.saga.recovery-interval-ms:5000}")
+    public void recover() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderSaga> due = orderSagaRepository.findByStatusInAndLeaseUntilLessThanEqual(
+                UNFINISHED, now, PageRequest.of(0, recoveryBatchSize));
+        int resumed = 0;
+        for (OrderSaga saga : due) {
+            String owner = UUID.randomUUID().toString();
+            if (!orderSagaRepository.claim(saga.getOrderId(), owner, now, now.plus(lease))) {
+                continue;
+            }
+            try {
+                sagaExecutor.execute(() -> advance(saga.getOrderId(), owner));
+                resumed++;
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        if (resumed > 0) {
+            log.info("Resumed {} order saga(s)", resumed);
+        }
+    }
+    
+    // A running saga sees the flag before it confirms; a confirmed one is reopened to refund the payment
+    public void cancel(String orderId) {
+        orderSagaRepository.requestCancellation(orderId).ifPresent(saga -> {
+            if (saga.getStatus() == OrderSaga.SagaStatus.COMPLETED) {
+                orderSagaRepository.transition(
+                        orderId, OrderSaga.SagaStatus.COMPLETED, OrderSaga.SagaStatus.COMPENSATING);
+            }
+            launch(orderId);
+        });
+    }
+    
+    public OrderSagaResponse getSaga(String orderId) {
+        OrderSaga saga = orderSagaRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("No saga found for order: " + orderId));
+        return OrderSagaResponse.builder()
+                .orderId(saga.getOrderId())
+                .status(saga.getStatus())
+                .stock(saga.getStock())
+                .payment(saga.getPayment())
+                .confirmation(saga.getConfirmation())
+                .cancelRequested(saga.isCancelRequested())
+                .attempts(saga.getAttempts())
+                .lastError(saga.getLastError())
+                .createdAt(saga.getCreatedAt())
+                .updatedAt(saga.getUpdatedAt())
+                .finishedAt(saga.getFinishedAt())
+                .build();
+    }
+    
+    private void advance(String orderId, String owner) {
+        try {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (reload(orderId).getStatus() == OrderSaga.SagaStatus.RUNNING) {
+                runForward(orderId, owner, order);
+            }
+            OrderSaga saga = reload(orderId);
+            if (saga.getStatus() == OrderSaga.SagaStatus.COMPENSATING) {
+                compensate(saga, owner);
+            }
+        } catch (LeaseLostException e) {
+            log.warn("Lost the lease on the saga for order {}, leaving it to its new owner", orderId);
+        } catch (RuntimeException e) {
+            String error = e.getMessage();
+            log.warn("Saga for order {} did not finish, retrying later: {}", orderId, error);
+            scheduleRetry(reload(orderId), owner, error);
+        }
+    }
+    
+    private void runForward(String orderId, String owner, Order order) {
+        if (order == null) {
+            log.error("Order {} is missing, compensating its saga", orderId);
+            toCompensating(orderId);
+            return;
+        }
+        OrderSaga started = reload(orderId);
+        if (!started.isCancelRequested()) {
+            CompletableFuture<Void> stock = isOpen(started.getStock())
+                    ? CompletableFuture.runAsync(() -> reserveStock(order, owner), stepExecutor)
+                    : CompletableFuture.completedFuture(null);
+            CompletableFuture<Void> payment = isOpen(started.getPayment())
+                    ? CompletableFuture.runAsync(() -> takePayment(order, started, owner), stepExecutor)
+                    : CompletableFuture.completedFuture(null);
+            // allOf waits for both, so a failing step never leaves the other running outside the lease
+            await(CompletableFuture.allOf(stock, payment));
+        }
+        
+        OrderSaga saga = reload(orderId);
+        if (saga.isCancelRequested() || hasFailed(saga.getStock()) || hasFailed(saga.getPayment())) {
+            toCompensating(orderId);
+            return;
+        }
+        confirm(saga, owner);
+    }
+    
+    private void confirm(OrderSaga saga, String owner) {
+        String orderId = saga.getOrderId();
+        if (saga.getConfirmation().getStatus() != OrderSaga.StepStatus.SUCCEEDED) {
+            String holdId = saga.getStock().getReference();
+            renewLease(orderId, owner);
+            if (!commitHold(holdId)) {
+                updateStep(orderId, owner, "confirmation",
+                        step(OrderSaga.StepStatus.FAILED, holdId, "Stock hold expired before it was committed"));
+                toCompensating(orderId);
+                return;
+            }
+            updateStep(orderId, owner, "confirmation", step(OrderSaga.StepStatus.SUCCEEDED, holdId, null));
+        }
+        renewLease(orderId, owner);
+        moveOrder(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING);
+        if (orderSagaRepository.transition(orderId, OrderSaga.SagaStatus.RUNNING, OrderSaga.SagaStatus.COMPLETED)) {
+            log.info("Saga completed for order {}", orderId);
+        } else {
+            // Cancelled while confirming: the committed stock is restocked and the payment refunded
+            toCompensating(orderId);
+        }
+    }
+    
+    // Stock and payment are given back in parallel; each is safe to repeat if the saga is resumed
+    private void compensate(OrderSaga saga, String owner) {
+        String orderId = saga.getOrderId();
+        boolean stockSold = saga.getConfirmation().getStatus() == OrderSaga.StepStatus.SUCCEEDED;
+        // A hold whose creation was never acknowledged is left to expire
+        String holdId = saga.getStock().getReference();
+        CompletableFuture<Void> stock = saga.getStock().getStatus() == OrderSaga.StepStatus.SUCCEEDED
+                ? CompletableFuture.runAsync(() -> {
+                    if (stockSold) {
+                        restockStock(orderId, owner, holdId);
+                    } else {
+                        releaseStock(orderId, owner, holdId);
+                    }
+                }, stepExecutor)
+                : CompletableFuture.completedFuture(null);
+        OrderSaga.StepStatus paymentStatus = saga.getPayment().getStatus();
+        CompletableFuture<Void> payment = paymentStatus == OrderSaga.StepStatus.SUCCEEDED
+                || paymentStatus == OrderSaga.StepStatus.IN_PROGRESS
+                ? CompletableFuture.runAsync(() -> refund(orderId, owner), stepExecutor)
+                : CompletableFuture.completedFuture(null);
+        await(CompletableFuture.allOf(stock, payment));
+        
+        renewLease(orderId, owner);
+        // Orders cancelled by the customer are already CANCELLED; only still-pending ones are rejected here
+        moveOrder(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.REJECTED);
+        if (orderSagaRepository.transition(
+                orderId, OrderSaga.SagaStatus.COMPENSATING, OrderSaga.SagaStatus.COMPENSATED)) {
+            log.info("Saga compensated for order {}", orderId);
+        }
+    }
+    
+    // Holds are deduplicated on their reference, so a resumed saga gets back the hold it already placed
+    private void reserveStock(Order order, String owner) {
+        InventoryHoldResponse hold;
+        renewLease(order.getId(), owner);
+        try {
+            hold = inventoryClient.createHold(InventoryHoldRequest.builder()
+                    .referenceId(order.getId())
+                    .items(OrderService.reservationRequestFor(order).getItems())
+                    .ttlSeconds(holdTtlSeconds)
+                    .build());
+        } catch (FeignException.Conflict e) {
+            updateStep(order.getId(), owner, "stock",
+                    step(OrderSaga.StepStatus.FAILED, null, "Insufficient stock for one or more lines"));
+            return;
+        }
+        if (HELD.equals(hold.getStatus())) {
+            updateStep(order.getId(), owner, "stock",
+                    step(OrderSaga.StepStatus.SUCCEEDED, hold.getHoldId(), null));
+        } else {
+            updateStep(order.getId(), owner, "stock",
+                    step(OrderSaga.StepStatus.FAILED, hold.getHoldId(), "Stock hold is " + hold.getStatus()));
+        }
+    }
+    
+    // A charge whose outcome was lost is looked up by order before another one is attempted, and the order ID
+    // doubles as the idempotency key so a retried charge is never taken twice
+    private void takePayment(Order order, OrderSaga saga, String owner) {
+        renewLease(order.getId(), owner);
+        PaymentResponse payment = saga.getPayment().getStatus() == OrderSaga.StepStatus.IN_PROGRESS
+                ? findPayment(order.getId())
+                : null;
+        if (payment == null) {
+            updateStep(order.getId(), owner, "payment",
+                    step(OrderSaga.StepStatus.IN_PROGRESS, null, null));
+            try {
+                payment = paymentClient.processPayment(PaymentRequest.builder()
+                        .orderId(order.getId())
+                        .customerId(order.getCustomerId())
+                        .amount(order.getTotalAmount().toBigDecimal())
+                        .paymentMethod(saga.getPaymentMethod())
+                        .paymentGateway(saga.getPaymentGateway())
+                        .build(), SAGA_USER, "saga-payment-" + order.getId());
+            } catch (FeignException.BadRequest e) {
+                updateStep(order.getId(), owner, "payment",
+                        step(OrderSaga.StepStatus.FAILED, null, "Payment request rejected: " + e.getMessage()));
+                return;
+            }
+        }
+        
+        if (PAYMENT_COMPLETED.equals(payment.getStatus())) {
+            updateStep(order.getId(), owner, "payment",
+                    step(OrderSaga.StepStatus.SUCCEEDED, payment.getId(), null));
+        } else if (PAYMENT_FAILED.equals(payment.getStatus())) {
+            updateStep(order.getId(), owner, "payment",
+                    step(OrderSaga.StepStatus.FAILED, payment.getId(), "Payment declined"));
+        } else {
+            updateStep(order.getId(), owner, "payment",
+                    step(OrderSaga.StepStatus.IN_PROGRESS, payment.getId(), null));
+            throw new IllegalStateException("Payment " + payment.getId() + " is still " + payment.getStatus());
+        }
+    }
+    
+    // False when the hold is no longer open; a hold committed by an earlier attempt counts as committed
+    private boolean commitHold(String holdId) {
+        try {
+            inventoryClient.commitHold(holdId);
+            return true;
+        } catch (FeignException.Conflict e) {
+            return COMMITTED.equals(inventoryClient.getHold(holdId).getStatus());
+        }
+    }
+    
+    private void releaseStock(String orderId, String owner, String holdId) {
+        renewLease(orderId, owner);
+        try {
+            inventoryClient.releaseHold(holdId);
+        } catch (FeignException.Conflict | FeignException.NotFound e) {
+            log.info("Stock hold {} for order {} was already closed", holdId, orderId);
+        }
+        updateStep(orderId, owner, "stock", step(OrderSaga.StepStatus.COMPENSATED, holdId, null));
+    }
+    
+    // A conflict means the hold was restocked by an earlier attempt, unless the hold says otherwise
+    private void restockStock(String orderId, String owner, String holdId) {
+        renewLease(orderId, owner);
+        try {
+            inventoryClient.restockHold(holdId);
+        } catch (FeignException.Conflict e) {
+            String status = inventoryClient.getHold(holdId).getStatus();
+            if (!RESTOCKED.equals(status)) {
+                throw new IllegalStateException("Stock hold " + holdId + " cannot be restocked from " + status);
+            }
+            log.info("Stock hold {} for order {} was already restocked", holdId, orderId);
+        }
+        updateStep(orderId, owner, "stock", step(OrderSaga.StepStatus.COMPENSATED, holdId, null));
+    }
+    
+    // Works from the payment service's record rather than the saga's, which may predate the last attempt
+    private void refund(String orderId, String owner) {
+        renewLease(orderId, owner);
+        PaymentResponse payment = findPayment(orderId);
+        if (payment == null) {
+            updateStep(orderId, owner, "payment",
+                    step(OrderSaga.StepStatus.FAILED, null, "No payment was taken"));
+            return;
+        }
+        switch (payment.getStatus()) {
+            case PAYMENT_COMPLETED:
+                paymentClient.refundPayment(payment.getId(), SAGA_USER);
+                updateStep(orderId, owner, "payment",
+                        step(OrderSaga.StepStatus.COMPENSATED, payment.getId(), null));
+                break;
+            case PAYMENT_REFUNDED:
+                updateStep(orderId, owner, "payment",
+                        step(OrderSaga.StepStatus.COMPENSATED, payment.getId(), null));
+                break;
+            case PAYMENT_FAILED:
+                updateStep(orderId, owner, "payment",
+                        step(OrderSaga.StepStatus.FAILED, payment.getId(), "Payment declined"));
+                break;
+            default:
+                throw new IllegalStateException("Payment " + payment.getId() + " is still " + payment.getStatus());
+        }
+    }
+    
+    private PaymentResponse findPayment(String orderId) {
+        try {
+            return paymentClient.getPaymentByOrderId(orderId);
+        } catch (FeignException.NotFound e) {
+            return null;
+        }
+    }
+    
+    private void moveOrder(String orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        orderStatsService.recordTransition(
+                orderRepository.updateStatusIf(Collections.singletonList(orderId), from, to), from, to);
+    }
+    
+    private void toCompensating(String orderId) {
+        if (orderSagaRepository.transition(orderId, OrderSaga.SagaStatus.RUNNING, OrderSaga.SagaStatus.COMPENSATING)) {
+            log.info("Compensating saga for order {}", orderId);
+        }
+    }
+    
+    private void scheduleRetry(OrderSaga saga, String owner, String error) {
+        String orderId = saga.getOrderId();
+        LocalDateTime now = LocalDateTime.now();
+        int attempts = saga.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            if (saga.getStatus() == OrderSaga.SagaStatus.RUNNING) {
+                log.error("Giving up on saga for order {} after {} attempt(s), compensating: {}",
+                        orderId, attempts, error);
+                toCompensating(orderId);
+                orderSagaRepository.scheduleRetry(orderId, owner, 0, now, error);
+            } else {
+                log.error("Compensation for order {} failed after {} attempt(s) and needs manual attention: {}",
+                        orderId, attempts, error);
+                orderSagaRepository.transition(
+                        orderId, OrderSaga.SagaStatus.COMPENSATING, OrderSaga.SagaStatus.FAILED);
+                orderSagaRepository.scheduleRetry(orderId, owner, attempts, now, error);
+            }
+            return;
+        }
+        long jittered = backoff.delayMs(attempts);
+        orderSagaRepository.scheduleRetry(orderId, owner, attempts, now.plus(Duration.ofMillis(jittered)), error);
+    }
+    
+    // Called as each step starts, so the lease only has to outlast the remote calls of a single step
+    private void renewLease(String orderId, String owner) {
+        if (!orderSagaRepository.renewLease(orderId, owner, LocalDateTime.now().plus(lease))) {
+            throw new LeaseLostException();
+        }
+    }
+    
+    private void updateStep(String orderId, String owner, String step, OrderSaga.Step value) {
+        if (!orderSagaRepository.updateStep(orderId, owner, step, value)) {
+            throw new LeaseLostException();
+        }
+    }
+    
+    private OrderSaga reload(String orderId) {
+        return orderSagaRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalStateException("Saga for order " + orderId + " disappeared"));
+    }
+    
+    private static boolean isOpen(OrderSaga.Step step) {
+        return step.getStatus() == OrderSaga.StepStatus.PENDING || step.getStatus() == OrderSaga.StepStatus.IN_PROGRESS;
+    }
+    
+    private static boolean hasFailed(OrderSaga.Step step) {
+        return step.getStatus() == OrderSaga.StepStatus.FAILED;
+    }
+    
+    private static OrderSaga.Step step(OrderSaga.StepStatus status, String reference, String error) {
+        return OrderSaga.Step.builder()
+                .status(status)
+                .reference(reference)
+                .error(error)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+    
+    private static void await(CompletableFuture<?> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    // Another run claimed the saga after this one's lease ran out; that run carries on from the persisted steps
+    private static class LeaseLostException extends RuntimeException {
+    }
+}
@@ -1,71 +1,189 @@
 package com.inventory.order.service;
 
-import com.inventory.order.client.InventoryClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.order.dto.BulkStatusUpdateRequest;
+import com.inventory.order.dto.BulkStatusUpdateResponse;
+import com.inventory.order.dto.CheckoutRequest;
+import com.inventory.order.dto.CursorPageResponse;
+import com.inventory.order.dto.InventoryReservationRequest;
 import com.inventory.order.dto.OrderItemDto;
 import com.inventory.order.dto.OrderRequest;
 import com.inventory.order.dto.OrderResponse;
+import com.inventory.order.dto.PaymentStatusBatchRequest;
+import com.inventory.order.dto.PaymentStatusBatchResponse;
+import com.inventory.order.exception.InvalidStatusTransitionException;
+import com.inventory.order.exception.OrderIntakeFullException;
 import com.inventory.order.exception.OrderNotFoundException;
+import com.inventory.order.exception.PreconditionFailedException;
+import com.inventory.order.model.Money;
 import com.inventory.order.model.Order;
 import com.inventory.order.model.OrderItem;
+import com.inventory.order.model.OrderSaga;
+import com.inventory.order.model.OutboxEvent;
 import com.inventory.order.repository.OrderRepository;
+import com.inventory.order.repository.OrderSagaRepository;
+import com.inventory.order.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
     
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BULK_ORDERS = 10000;
+    private static final int BULK_CHUNK_SIZE = 1000;
+    // The intake pipeline normally settles an accepted order well before the relay would pick it up
+    private static final Duration INTAKE_RELAY_DELAY = Duration.ofSeconds(30);
+    
     private final OrderRepository orderRepository;
-    private final InventoryClient inventoryClient;
+    private final OrderIntakePipeline orderIntakePipeline;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderSagaRepository orderSagaRepository;
+    private final OrderSagaOrchestrator orderSagaOrchestrator;
+    private final OutboxRelay outboxRelay;
+    private final OrderIdGenerator orderIdGenerator;
+    private final OrderStatsService orderStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
     
     public OrderResponse createOrder(OrderRequest orderRequest, String userId) {
         log.info("Creating new order for customer: {}", orderRequest.getCustomerId());
-        
+        // Stock is only ever reserved by the outbox relay, so a failed save cannot leak a reservation; the order
+        // moves to PROCESSING or REJECTED once the relay has heard back from inventory
+        Order savedOrder = saveWithStockReservation(
+                buildOrder(orderRequest, userId, Order.OrderStatus.PENDING), Duration.ZERO);
+        return mapToOrderResponse(savedOrder);
+    }
+    
+    // Persists the order as PENDING and leaves the stock reservation to the intake pipeline
+    public OrderResponse acceptOrder(OrderRequest orderRequest, String userId) {
+        log.info("Accepting order asynchronously for customer: {}", orderRequest.getCustomerId());
+        if (!orderIntakePipeline.tryReserveSlot()) {
+            throw new OrderIntakeFullException("Order intake is at capacity; retry shortly");
+        }
+        Order savedOrder;
+        try {
+            savedOrder = saveWithStockReservation(
+                    buildOrder(orderRequest, userId, Order.OrderStatus.PENDING), INTAKE_RELAY_DELAY);
+        } catch (RuntimeException e) {
+            orderIntakePipeline.releaseSlot();
+            throw e;
+        }
+        orderIntakePipeline.submit(savedOrder.getId());
+        return mapToOrderResponse(savedOrder);
+    }
+    
+    // Holds stock and takes payment in a saga; the order stays PENDING until the saga confirms or rejects it
+    public OrderResponse checkout(CheckoutRequest checkoutRequest, String userId) {
+        log.info("Checking out order for customer: {}", checkoutRequest.getOrder().getCustomerId());
+        Order order = buildOrder(checkoutRequest.getOrder(), userId, Order.OrderStatus.PENDING);
+        OrderSaga saga = orderSagaOrchestrator.newSaga(
+                order.getId(), checkoutRequest.getPaymentMethod(), checkoutRequest.getPaymentGateway());
+        // The order and its saga commit together, so recovery finds every order that still needs one
+        Order savedOrder = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            orderSagaRepository.save(saga);
+            return saved;
+        });
+        orderStatsService.recordPlaced(savedOrder);
+        orderSagaOrchestrator.launch(savedOrder.getId());
+        return mapToOrderResponse(savedOrder);
+    }
+    
+    // The order and its RESERVE_STOCK outbox event commit together, so no order is left without a stock movement
+    private Order saveWithStockReservation(Order order, Duration relayDelay) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent event = OutboxEvent.builder()
+                .id(UUID.randomUUID().toString())
+                .aggregateId(order.getId())
+                .type(OutboxEvent.EventType.RESERVE_STOCK)
+                .payload(toJson(reservationRequestFor(order)))
+                // Inventory deduplicates reservations on their reference, which is the order ID
+                .idempotencyKey(order.getId())
+                .status(OutboxEvent.EventStatus.PENDING)
+                .nextAttemptAt(now.plus(relayDelay))
+                .createdAt(now)
+                .build();
+        Order savedOrder = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            outboxEventRepository.save(event);
+            return saved;
+        });
+        orderStatsService.recordPlaced(savedOrder);
+        return savedOrder;
+    }
+    
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private Order buildOrder(OrderRequest orderRequest, String userId, Order.OrderStatus status) {
         // Convert OrderItemDto to OrderItem
         List<OrderItem> orderItems = orderRequest.getItems().stream()
                 .map(this::mapToOrderItem)
                 .collect(Collectors.toList());
         
-        // Calculate total amount
-        BigDecimal totalAmount = orderItems.stream()
-                .map(OrderItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Calculate total amount in minor units; overflow fails the order instead of wrapping
+        long totalMinorUnits = 0;
+        for (OrderItem item : orderItems) {
+            totalMinorUnits = Math.addExact(totalMinorUnits, item.getSubtotal().getMinorUnits());
+        }
+        Money totalAmount = Money.ofMinor(totalMinorUnits);
         
         // Create order
-        Order order = Order.builder()
-                .id("ORD-" + UUID.randomUUID().toString().substring(0, 8))
+        return Order.builder()
+                .id(orderIdGenerator.nextId())
                 .customerId(orderRequest.getCustomerId())
                 .customerName(orderRequest.getCustomerName())
                 .orderDate(LocalDateTime.now())
                 .items(orderItems)
                 .totalAmount(totalAmount)
-                .status(Order.OrderStatus.PROCESSING)
+                .status(status)
                 .createdBy(userId)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
-        
-        // Save order
-        Order savedOrder = orderRepository.save(order);
-        
-        // Update inventory (in a real application, this would be done with a transaction or saga pattern)
-        try {
-            orderItems.forEach(item -> 
-                inventoryClient.updateInventory(item.getProductId(), item.getQuantity()));
-        } catch (Exception e) {
-            log.error("Failed to update inventory: {}", e.getMessage());
-            // In a real application, you would implement compensation logic here
-        }
-        
-        return mapToOrderResponse(savedOrder);
+    }
+    
+    static InventoryReservationRequest reservationRequestFor(Order order) {
+        return InventoryReservationRequest.builder()
+                .referenceId(order.getId())
+                .items(order.getItems().stream()
+                        .map(item -> InventoryReservationRequest.Line.builder()
+                                .productId(item.getProductId())
+                                .quantity(item.getQuantity())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
     }
     
     public List<OrderResponse> getAllOrders() {
@@ -75,11 +193,40 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
     
+    public CursorPageResponse<OrderResponse> getOrdersPage(String cursor, int limit) {
+        log.info("Fetching orders page after cursor: {}, limit: {}", cursor, limit);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        
+        // Fetch one extra document to learn whether another page exists without a count query
+        List<Order> orders = orderRepository.findPageAfter(CursorPageResponse.decodeCursor(cursor), pageSize + 1);
+        boolean hasMore = orders.size() > pageSize;
+        List<Order> page = hasMore ? orders.subList(0, pageSize) : orders;
+        
+        return CursorPageResponse.<OrderResponse>builder()
+                .items(page.stream()
+                        .map(this::mapToOrderResponse)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasMore ? CursorPageResponse.encodeCursor(page.get(page.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    // Writes one JSON document per line straight from the Mongo cursor, so heap use does not grow with the collection
+    public void streamOrders(OutputStream outputStream) throws IOException {
+        log.info("Streaming all orders");
+        try (Stream<Order> orders = orderRepository.streamAllBy()) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(objectMapper.writeValueAsBytes(mapToOrderResponse(iterator.next())));
+                outputStream.write('\n');
+            }
+        }
+        outputStream.flush();
+    }
+    
     public OrderResponse getOrderById(String orderId) {
         log.info("Fetching order with ID: {}", orderId);
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
-        return mapToOrderResponse(order);
+        return mapToOrderResponse(findOrder(orderId));
     }
     
     public List<OrderResponse> getOrdersByCustomerId(String customerId) {
@@ -89,6 +236,41 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
     
+    public CursorPageResponse<OrderResponse> getCustomerOrderHistory(String customerId, String cursor, int limit,
+                                                                     Order.OrderStatus status,
+                                                                     LocalDateTime from, LocalDateTime to) {
+        log.info("Fetching order history page for customer: {}, cursor: {}, limit: {}", customerId, cursor, limit);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        
+        // History cursors wrap the orderDate and _id of the last order on the previous page
+        LocalDateTime beforeDate = null;
+        String beforeId = null;
+        String position = CursorPageResponse.decodeCursor(cursor);
+        if (position != null) {
+            int separator = position.indexOf('|');
+            try {
+                beforeDate = LocalDateTime.parse(position.substring(0, separator));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+            }
+            beforeId = position.substring(separator + 1);
+        }
+        
+        List<Order> orders = orderRepository.findCustomerPage(
+                customerId, beforeDate, beforeId, status, from, to, pageSize + 1);
+        boolean hasMore = orders.size() > pageSize;
+        List<Order> page = hasMore ? orders.subList(0, pageSize) : orders;
+        Order last = page.isEmpty() ? null : page.get(page.size() - 1);
+        
+        return CursorPageResponse.<OrderResponse>builder()
+                .items(page.stream()
+                        .map(this::mapToOrderResponse)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasMore ? CursorPageResponse.encodeCursor(last.getOrderDate() + "|" + last.getId()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+    
     public List<OrderResponse> getOrdersByStatus(Order.OrderStatus status) {
         log.info("Fetching orders with status: {}", status);
         return orderRepository.findByStatus(status).stream()
@@ -96,25 +278,225 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
     
-    public OrderResponse updateOrderStatus(String orderId, Order.OrderStatus status, String userId) {
+    // expectedVersion comes from If-Match. The change is one conditional write on the status (and version) that
+    // was read, so a concurrent change makes it fail with 409 instead of being overwritten
+    public OrderResponse updateOrderStatus(String orderId, Order.OrderStatus status, String userId,
+                                           Long expectedVersion) {
         log.info("Updating order {} status to {}", orderId, status);
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
-        
-        order.setStatus(status);
-        order.setUpdatedAt(LocalDateTime.now());
+        Order order = findOrder(orderId);
+        checkVersion(order, expectedVersion);
+        Order.OrderStatus previousStatus = order.getStatus();
+        if (!previousStatus.canTransitionTo(status)) {
+            throw new InvalidStatusTransitionException("Order " + orderId + " cannot move from "
+                    + previousStatus + " to " + status);
+        }
         
-        Order updatedOrder = orderRepository.save(order);
+        // The move to CANCELLED or REJECTED and the stock release it needs commit together
+        Order updatedOrder = transactionTemplate.execute(tx -> {
+            Order moved = orderRepository.transitionStatus(orderId, previousStatus, expectedVersion, status, userId);
+            if (moved != null && OutboxRelay.releasesStock(status)) {
+                scheduleStockRelease(Collections.singletonList(moved), previousStatus);
+            }
+            return moved;
+        });
+        if (updatedOrder == null) {
+            Order current = findOrder(orderId);
+            checkVersion(current, expectedVersion);
+            throw new InvalidStatusTransitionException("Order " + orderId + " moved from " + previousStatus
+                    + " to " + current.getStatus() + " concurrently; fetch it again and retry");
+        }
+        orderStatsService.recordTransition(Collections.singletonList(updatedOrder), previousStatus, status);
+        if (status == Order.OrderStatus.CANCELLED) {
+            // Checkout orders release their stock hold and refund their payment
+            orderSagaOrchestrator.cancel(orderId);
+        }
         return mapToOrderResponse(updatedOrder);
     }
     
+    // Called by the payment service's notification relay; repeated deliveries leave the order as it is
+    public OrderResponse updatePaymentStatus(String orderId, Order.PaymentStatus paymentStatus) {
+        log.info("Recording payment status {} for order {}", paymentStatus, orderId);
+        Order updatedOrder = orderRepository.updatePaymentStatus(orderId, paymentStatus, LocalDateTime.now());
+        if (updatedOrder == null) {
+            // Nothing was written: the order already has this status or was refunded. Only a missing order fails
+            log.debug("Payment status {} for order {} changes nothing", paymentStatus, orderId);
+            return mapToOrderResponse(findOrder(orderId));
+        }
+        return mapToOrderResponse(updatedOrder);
+    }
+    
+    // One conditional write per update, applied in request order so two statuses for one order land as sent; a
+    // single read then tells the orders that were left as they are from the missing ones
+    public PaymentStatusBatchResponse updatePaymentStatuses(List<PaymentStatusBatchRequest.Update> updates) {
+        log.info("Recording a batch of {} payment status(es)", updates.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> updated = new ArrayList<>(updates.size());
+        Set<String> untouched = new HashSet<>();
+        for (PaymentStatusBatchRequest.Update update : updates) {
+            Order order = orderRepository.updatePaymentStatus(update.getOrderId(), update.getStatus(), now);
+            updated.add(order);
+            if (order == null) {
+                untouched.add(update.getOrderId());
+            }
+        }
+        Map<String, Order> existing = new HashMap<>();
+        if (!untouched.isEmpty()) {
+            orderRepository.findPaymentStatusesById(untouched).forEach(order -> existing.put(order.getId(), order));
+        }
+        
+        List<PaymentStatusBatchResponse.Result> results = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            String orderId = updates.get(i).getOrderId();
+            Order order = updated.get(i);
+            if (order != null) {
+                results.add(paymentStatusResult(orderId, PaymentStatusBatchResponse.Outcome.UPDATED, order));
+            } else if (existing.containsKey(orderId)) {
+                results.add(paymentStatusResult(orderId, PaymentStatusBatchResponse.Outcome.UNCHANGED,
+                        existing.get(orderId)));
+            } else {
+                results.add(paymentStatusResult(orderId, PaymentStatusBatchResponse.Outcome.NOT_FOUND, null));
+            }
+        }
+        return PaymentStatusBatchResponse.builder()
+                .results(results)
+                .build();
+    }
+    
+    private static PaymentStatusBatchResponse.Result paymentStatusResult(
+            String orderId, PaymentStatusBatchResponse.Outcome outcome, Order order) {
+        return PaymentStatusBatchResponse.Result.builder()
+                .orderId(orderId)
+                .outcome(outcome)
+                .paymentStatus(order != null ? order.getPaymentStatus() : null)
+                .build();
+    }
+    
+    // Moves a whole wave of orders with a few writes per chunk: one updateMulti for each status the target can be
+    // reached from, then one read for the statuses of the orders that did not move
+    public BulkStatusUpdateResponse bulkUpdateOrderStatus(BulkStatusUpdateRequest request, String userId) {
+        long startedAt = System.currentTimeMillis();
+        Order.OrderStatus status = request.getStatus();
+        List<String> orderIds = resolveBulkOrderIds(request);
+        log.info("Bulk updating {} order(s) to {}", orderIds.size(), status);
+        List<Order.OrderStatus> sources = Arrays.stream(Order.OrderStatus.values())
+                .filter(source -> source.canTransitionTo(status))
+                .collect(Collectors.toList());
+        
+        Map<String, BulkStatusUpdateResponse.Result> results = new HashMap<>();
+        List<String> updatedIds = new ArrayList<>();
+        for (int start = 0; start < orderIds.size(); start += BULK_CHUNK_SIZE) {
+            Set<String> remaining = new HashSet<>(orderIds.subList(start,
+                    Math.min(start + BULK_CHUNK_SIZE, orderIds.size())));
+            for (Order.OrderStatus source : sources) {
+                if (remaining.isEmpty()) {
+                    break;
+                }
+                List<Order> moved = transactionTemplate.execute(tx -> {
+                    List<Order> changed = orderRepository.updateStatusIf(remaining, source, status, userId);
+                    if (OutboxRelay.releasesStock(status)) {
+                        scheduleStockRelease(changed, source);
+                    }
+                    return changed;
+                });
+                orderStatsService.recordTransition(moved, source, status);
+                for (Order order : moved) {
+                    remaining.remove(order.getId());
+                    updatedIds.add(order.getId());
+                    results.put(order.getId(), bulkResult(order.getId(),
+                            BulkStatusUpdateResponse.Outcome.UPDATED, status));
+                }
+            }
+            if (!remaining.isEmpty()) {
+                for (Order order : orderRepository.findStatusesById(remaining)) {
+                    remaining.remove(order.getId());
+                    results.put(order.getId(), bulkResult(order.getId(), order.getStatus() == status
+                            ? BulkStatusUpdateResponse.Outcome.UNCHANGED
+                            : BulkStatusUpdateResponse.Outcome.INVALID_TRANSITION, order.getStatus()));
+                }
+                remaining.forEach(id -> results.put(id,
+                        bulkResult(id, BulkStatusUpdateResponse.Outcome.NOT_FOUND, null)));
+            }
+        }
+        if (status == Order.OrderStatus.CANCELLED) {
+            updatedIds.forEach(orderSagaOrchestrator::cancel);
+        }
+        
+        long elapsedMs = System.currentTimeMillis() - startedAt;
+        log.info("Moved {} of {} order(s) to {} in {} ms", updatedIds.size(), orderIds.size(), status, elapsedMs);
+        return BulkStatusUpdateResponse.builder()
+                .status(status)
+                .requested(orderIds.size())
+                .updated(updatedIds.size())
+                .elapsedMs(elapsedMs)
+                .results(orderIds.stream()
+                        .map(results::get)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    // Checkout orders hold stock through their saga, which gives it back on cancellation; every other order was
+    // reserved through the outbox. An order leaving PROCESSING is known to hold its reservation.
+    private void scheduleStockRelease(List<Order> orders, Order.OrderStatus from) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Set<String> checkoutOrderIds = new HashSet<>();
+        orderSagaRepository.findAllById(orders.stream().map(Order::getId).collect(Collectors.toList()))
+                .forEach(saga -> checkoutOrderIds.add(saga.getOrderId()));
+        outboxRelay.scheduleStockRelease(orders.stream()
+                .filter(order -> !checkoutOrderIds.contains(order.getId()))
+                .collect(Collectors.toList()), from == Order.OrderStatus.PROCESSING);
+    }
+    
+    private List<String> resolveBulkOrderIds(BulkStatusUpdateRequest request) {
+        boolean byId = request.getOrderIds() != null && !request.getOrderIds().isEmpty();
+        if (byId == (request.getFilter() != null)) {
+            throw new IllegalArgumentException("Specify either orderIds or filter");
+        }
+        List<String> orderIds;
+        if (byId) {
+            orderIds = new ArrayList<>(new LinkedHashSet<>(request.getOrderIds()));
+        } else {
+            BulkStatusUpdateRequest.Filter filter = request.getFilter();
+            orderIds = orderRepository.findIdsByStatus(filter.getStatus(), filter.getFrom(), filter.getTo(),
+                    MAX_BULK_ORDERS + 1);
+        }
+        if (orderIds.size() > MAX_BULK_ORDERS) {
+            throw new IllegalArgumentException("A bulk update may change at most " + MAX_BULK_ORDERS
+                    + " orders; split the wave or narrow the filter");
+        }
+        return orderIds;
+    }
+    
+    private static BulkStatusUpdateResponse.Result bulkResult(String orderId, BulkStatusUpdateResponse.Outcome outcome,
+                                                             Order.OrderStatus currentStatus) {
+        return BulkStatusUpdateResponse.Result.builder()
+                .orderId(orderId)
+                .outcome(outcome)
+                .currentStatus(currentStatus)
+                .build();
+    }
+    
+    private Order findOrder(String orderId) {
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
+    }
+    
+    private static void checkVersion(Order order, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new PreconditionFailedException("Order " + order.getId() + " is at version "
+                    + order.getVersion() + ", not " + expectedVersion);
+        }
+    }
+    
     private OrderItem mapToOrderItem(OrderItemDto dto) {
+        Money unitPrice = Money.of(dto.getUnitPrice());
         return OrderItem.builder()
                 .productId(dto.getProductId())
                 .productName(dto.getProductName())
                 .quantity(dto.getQuantity())
-                .unitPrice(dto.getUnitPrice())
-                .subtotal(dto.getUnitPrice().multiply(BigDecimal.valueOf(dto.getQuantity())))
+                .unitPrice(unitPrice)
+                .subtotal(unitPrice.times(dto.getQuantity()))
                 .build();
     }
     
@@ -123,7 +505,7 @@ public class OrderService {
                 .productId(item.getProductId())
                 .productName(item.getProductName())
                 .quantity(item.getQuantity())
-                .unitPrice(item.getUnitPrice())
+                .unitPrice(toAmount(item.getUnitPrice()))
                 .build();
     }
     
@@ -136,10 +518,17 @@ public class OrderService {
                 .items(order.getItems().stream()
                         .map(this::mapToOrderItemDto)
                         .collect(Collectors.toList()))
-                .totalAmount(order.getTotalAmount())
+                .totalAmount(toAmount(order.getTotalAmount()))
                 .status(order.getStatus())
+                .paymentStatus(order.getPaymentStatus())
                 .createdAt(order.getCreatedAt())
                 .updatedAt(order.getUpdatedAt())
+                .version(order.getVersion())
+                .statusHistory(order.getStatusHistory())
                 .build();
     }
+    
+    private static BigDecimal toAmount(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
 }
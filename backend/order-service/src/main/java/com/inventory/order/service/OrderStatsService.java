@@ -0,0 +1,298 @@
+package com.inventory.order.service;
+
+import com.inventory.order.dto.OrderStatsResponse;
+import com.inventory.order.dto.StatsRebuildResponse;
+import com.inventory.order.exception.StatsRebuildInProgressException;
+import com.inventory.order.model.Money;
+import com.inventory.order.model.Order;
+import com.inventory.order.model.OrderStatsBucket;
+import com.inventory.order.model.OrderStatusChange;
+import com.inventory.order.repository.OrderRepository;
+import com.inventory.order.repository.OrderStatsBucketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Minute, hour and day rollups of orders by status. Every order write moves the order between status totals in
+// the buckets of its orderDate, so dashboards read a few bucket documents instead of the orders. Writes that
+// fail to reach the rollups are logged and corrected by the next rebuild.
+@Service
+@Slf4j
+public class OrderStatsService {
+    
+    private static final long MAX_BUCKETS = 1500;
+    // Orders are written with the clocks of every instance; the watermark sits this far back so no write stamped
+    // before it can still be in flight when the scan starts
+    private static final Duration WATERMARK_MARGIN = Duration.ofMinutes(1);
+    
+    private final OrderStatsBucketRepository orderStatsBucketRepository;
+    private final OrderRepository orderRepository;
+    private final Duration rebuildLockLease;
+    
+    public OrderStatsService(OrderStatsBucketRepository orderStatsBucketRepository,
+                             OrderRepository orderRepository,
+                             @Value("${order.stats.rebuild-lock-ms:1800000}") long rebuildLockMs) {
+        this.orderStatsBucketRepository = orderStatsBucketRepository;
+        this.orderRepository = orderRepository;
+        this.rebuildLockLease = Duration.ofMillis(rebuildLockMs);
+    }
+    
+    public void recordPlaced(Order order) {
+        record(Collections.singletonList(order), null, order.getStatus());
+    }
+    
+    public void recordTransition(Collection<Order> orders, Order.OrderStatus from, Order.OrderStatus to) {
+        if (from != to) {
+            record(orders, from, to);
+        }
+    }
+    
+    public OrderStatsResponse getStats(OrderStatsBucket.Granularity granularity, LocalDateTime from,
+                                       LocalDateTime to) {
+        LocalDateTime end = granularity.bucketStart(to == null ? LocalDateTime.now() : to)
+                .plus(1, granularity.getUnit());
+        LocalDateTime start = from == null ? end.minus(defaultBuckets(granularity), granularity.getUnit())
+                : granularity.bucketStart(from);
+        if (granularity.getUnit().between(start, end) > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range spans more than " + MAX_BUCKETS + " " + granularity
+                    + " buckets; use a coarser granularity");
+        }
+        log.info("Fetching {} order stats from {} to {}", granularity, start, end);
+        
+        List<OrderStatsBucket> buckets = orderStatsBucketRepository
+                .findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                        granularity, start, end);
+        Map<String, OrderStatsBucket.Totals> totals = new TreeMap<>();
+        List<OrderStatsResponse.Bucket> items = buckets.stream()
+                .map(bucket -> OrderStatsResponse.Bucket.builder()
+                        .bucketStart(bucket.getBucketStart())
+                        .statuses(nonEmpty(bucket.getStatuses()))
+                        .build())
+                .filter(bucket -> !bucket.getStatuses().isEmpty())
+                .collect(Collectors.toList());
+        items.forEach(bucket -> bucket.getStatuses().forEach((status, bucketTotals) ->
+                add(totals, status, bucketTotals.getCount(), bucketTotals.getAmount())));
+        
+        return OrderStatsResponse.builder()
+                .granularity(granularity)
+                .from(start)
+                .to(end)
+                .buckets(items)
+                .totals(totals)
+                .build();
+    }
+    
+    // Recomputes every bucket from the orders collection and swaps them in at once. Only one instance rebuilds at a
+    // time. The scan counts every order as of a watermark, read back from its status history, and the orders
+    // written since are then replayed at their current status; only a write landing between that replay and the
+    // swap is lost, and the scheduled reconcile picks it up
+    public StatsRebuildResponse rebuild() {
+        String owner = UUID.randomUUID().toString();
+        if (!tryLock(owner)) {
+            throw new StatsRebuildInProgressException("Order stats are already being rebuilt");
+        }
+        try {
+            return rebuildLocked();
+        } finally {
+            orderStatsBucketRepository.unlockRebuild(owner);
+        }
+    }
+    
+    // Rebuilds on a schedule so increments that failed or were lost to a swap do not drift the rollups for good;
+    // skipped while another instance holds the lock
+    @Scheduled(cron = "${order.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        String owner = UUID.randomUUID().toString();
+        if (!tryLock(owner)) {
+            log.info("Order stats are being rebuilt by another instance, skipping reconcile");
+            return;
+        }
+        try {
+            rebuildLocked();
+        } finally {
+            orderStatsBucketRepository.unlockRebuild(owner);
+        }
+    }
+    
+    // First start with rollups, or with buckets in an older layout: backfill them from the orders already stored.
+    // Replicas starting together leave it to whichever takes the lock
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!needsBackfill()) {
+            return;
+        }
+        String owner = UUID.randomUUID().toString();
+        if (!tryLock(owner)) {
+            log.info("Order stats are being rebuilt by another instance, skipping backfill");
+            return;
+        }
+        try {
+            if (needsBackfill()) {
+                rebuildLocked();
+            }
+        } finally {
+            orderStatsBucketRepository.unlockRebuild(owner);
+        }
+    }
+    
+    private StatsRebuildResponse rebuildLocked() {
+        long startedAt = System.currentTimeMillis();
+        log.info("Rebuilding order stats from order history");
+        Map<String, OrderStatsBucket> buckets = new HashMap<>();
+        LocalDateTime watermark = LocalDateTime.now().minus(WATERMARK_MARGIN);
+        long scanned = 0;
+        try (Stream<Order> orders = orderRepository.streamAllBy()) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                scanned++;
+                addToBuckets(buckets, order, statusAt(order, watermark), 1);
+            }
+        }
+        
+        // The live buckets took the increments of these orders meanwhile, and the swap drops them; move each order
+        // from where the scan counted it to where it is now
+        long replayed = 0;
+        try (Stream<Order> orders = orderRepository.streamByUpdatedAtFrom(watermark)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                replayed++;
+                addToBuckets(buckets, order, statusAt(order, watermark), -1);
+                addToBuckets(buckets, order, order.getStatus(), 1);
+            }
+        }
+        
+        orderStatsBucketRepository.replaceAll(buckets.values());
+        
+        long elapsedMs = System.currentTimeMillis() - startedAt;
+        log.info("Rebuilt {} order stats bucket(s) from {} order(s), {} replayed past the watermark, in {} ms",
+                buckets.size(), scanned, replayed, elapsedMs);
+        return StatsRebuildResponse.builder()
+                .documentsScanned(scanned)
+                .bucketsWritten(buckets.size())
+                .elapsedMs(elapsedMs)
+                .build();
+    }
+    
+    // The status the order had at the given time: the from of its first change at or after it, else the current
+    // one. Null for an order created at or after it. The same order read twice gives the same answer, as long as no
+    // change stamped before the time is written in between
+    private static Order.OrderStatus statusAt(Order order, LocalDateTime at) {
+        if (order.getCreatedAt() != null && !order.getCreatedAt().isBefore(at)) {
+            return null;
+        }
+        if (order.getStatusHistory() != null) {
+            for (OrderStatusChange change : order.getStatusHistory()) {
+                if (change.getChangedAt() != null && !change.getChangedAt().isBefore(at)) {
+                    return change.getFrom();
+                }
+            }
+        }
+        return order.getStatus();
+    }
+    
+    private boolean needsBackfill() {
+        boolean empty = orderStatsBucketRepository.count() == 0;
+        return empty ? orderRepository.count() > 0
+                : orderStatsBucketRepository.existsBySchemaVersionNot(OrderStatsBucket.SCHEMA_VERSION);
+    }
+    
+    private boolean tryLock(String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        return orderStatsBucketRepository.tryLockRebuild(owner, now, now.plus(rebuildLockLease));
+    }
+    
+    private void record(Collection<Order> orders, Order.OrderStatus from, Order.OrderStatus to) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<String, OrderStatsBucket> deltas = new HashMap<>();
+        for (Order order : orders) {
+            if (from != null) {
+                addToBuckets(deltas, order, from, -1);
+            }
+            addToBuckets(deltas, order, to, 1);
+        }
+        try {
+            orderStatsBucketRepository.applyDeltas(deltas.values());
+        } catch (RuntimeException e) {
+            log.warn("Failed to update order stats for {} order(s); a rebuild will correct them: {}",
+                    orders.size(), e.getMessage());
+        }
+    }
+    
+    private static void addToBuckets(Map<String, OrderStatsBucket> buckets, Order order, Order.OrderStatus status,
+                                     int sign) {
+        if (order.getOrderDate() == null || status == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Money amount = order.getTotalAmount() == null ? Money.zero() : order.getTotalAmount();
+        for (OrderStatsBucket.Granularity granularity : OrderStatsBucket.Granularity.values()) {
+            LocalDateTime bucketStart = granularity.bucketStart(order.getOrderDate());
+            LocalDateTime expiresAt = granularity.expiresAt(bucketStart);
+            if (expiresAt != null && expiresAt.isBefore(now)) {
+                continue;
+            }
+            OrderStatsBucket bucket = buckets.computeIfAbsent(OrderStatsBucket.idOf(granularity, bucketStart),
+                    id -> OrderStatsBucket.builder()
+                            .id(id)
+                            .granularity(granularity)
+                            .bucketStart(bucketStart)
+                            .statuses(new HashMap<>())
+                            .schemaVersion(OrderStatsBucket.SCHEMA_VERSION)
+                            .expiresAt(expiresAt)
+                            .build());
+            add(bucket.getStatuses(), status.name(), sign, sign > 0 ? amount : amount.negate());
+        }
+    }
+    
+    private static void add(Map<String, OrderStatsBucket.Totals> totals, String status, long count,
+                            Money amount) {
+        OrderStatsBucket.Totals current = totals.computeIfAbsent(status, key -> OrderStatsBucket.Totals.builder()
+                .amount(Money.zero(amount.getCurrency()))
+                .build());
+        current.setCount(current.getCount() + count);
+        current.setAmount(current.getAmount().plus(amount));
+    }
+    
+    private static Map<String, OrderStatsBucket.Totals> nonEmpty(Map<String, OrderStatsBucket.Totals> statuses) {
+        Map<String, OrderStatsBucket.Totals> result = new TreeMap<>();
+        if (statuses != null) {
+            statuses.forEach((status, totals) -> {
+                if (totals.getCount() != 0) {
+                    result.put(status, totals);
+                }
+            });
+        }
+        return result;
+    }
+    
+    private static long defaultBuckets(OrderStatsBucket.Granularity granularity) {
+        switch (granularity) {
+            case MINUTE:
+                return 60;
+            case HOUR:
+                return 24;
+            default:
+                return 30;
+        }
+    }
+}
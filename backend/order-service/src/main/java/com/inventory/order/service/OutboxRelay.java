@@ -0,0 +1,278 @@
+package com.inventory.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.order.client.InventoryClient;
+import com.inventory.order.dto.InventoryBatchReservationRequest;
+import com.inventory.order.dto.InventoryBatchReservationResponse;
+import com.inventory.order.dto.InventoryReleaseRequest;
+import com.inventory.order.dto.InventoryReservationRequest;
+import com.inventory.order.dto.InventoryReservationResponse;
+import com.inventory.order.dto.OutboxStatsResponse;
+import com.inventory.order.model.Order;
+import com.inventory.order.model.OutboxEvent;
+import com.inventory.order.repository.OrderRepository;
+import com.inventory.order.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Delivers outbox events in batches. Failed deliveries are retried with exponential backoff and jitter until
+// max-attempts, after which the event is parked as FAILED. Receivers deduplicate on the event's idempotency key.
+@Component
+@Slf4j
+public class OutboxRelay {
+    
+    private static final String RESERVED = "RESERVED";
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    // Statuses in which an order no longer needs the stock reserved for it
+    private static final Set<Order.OrderStatus> RELEASING_STATUSES =
+            EnumSet.of(Order.OrderStatus.CANCELLED, Order.OrderStatus.REJECTED);
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderRepository orderRepository;
+    private final InventoryClient inventoryClient;
+    private final OrderStatsService orderStatsService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration lease;
+    private final Backoff backoff;
+    private final int maxAttempts;
+    
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OrderRepository orderRepository,
+                       InventoryClient inventoryClient,
+                       OrderStatsService orderStatsService,
+                       ObjectMapper objectMapper,
+                       @Value("${order.outbox.batch-size:100}") int batchSize,
+                       @Value("${order.outbox.lease-ms:30000}") long leaseMs,
+                       @Value("${order.outbox.initial-backoff-ms:1000}") long initialBackoffMs,
+                       @Value("${order.outbox.max-backoff-ms:300000}") long maxBackoffMs,
+                       @Value("${order.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderRepository = orderRepository;
+        this.inventoryClient = inventoryClient;
+        this.orderStatsService = orderStatsService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.backoff = new Backoff(initialBackoffMs, maxBackoffMs);
+        this.maxAttempts = maxAttempts;
+    }
+    
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> claimed = outboxEventRepository
+                .findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                        OutboxEvent.EventStatus.PENDING, now, PageRequest.of(0, batchSize))
+                .stream()
+                .filter(event -> outboxEventRepository.claim(event.getId(), now, now.plus(lease)))
+                .collect(Collectors.toList());
+        if (claimed.isEmpty()) {
+            return;
+        }
+        Map<OutboxEvent.EventType, List<OutboxEvent>> byType = claimed.stream()
+                .collect(Collectors.groupingBy(OutboxEvent::getType));
+        relayStockReservations(byType.getOrDefault(OutboxEvent.EventType.RESERVE_STOCK, List.of()));
+        relayStockReleases(byType.getOrDefault(OutboxEvent.EventType.RELEASE_STOCK, List.of()));
+    }
+    
+    public static boolean releasesStock(Order.OrderStatus status) {
+        return RELEASING_STATUSES.contains(status);
+    }
+    
+    // Must run in the transaction that moved the orders to CANCELLED or REJECTED, so no move goes without its release
+    public void scheduleStockRelease(Collection<Order> orders, boolean confirmed) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.saveAll(orders.stream()
+                .map(order -> OutboxEvent.builder()
+                        .id(UUID.randomUUID().toString())
+                        .aggregateId(order.getId())
+                        .type(OutboxEvent.EventType.RELEASE_STOCK)
+                        .payload(toJson(InventoryReleaseRequest.builder()
+                                .items(OrderService.reservationRequestFor(order).getItems())
+                                .confirmed(confirmed)
+                                .build()))
+                        // Inventory deduplicates releases on the reservation's reference, which is the order ID
+                        .idempotencyKey(order.getId())
+                        .status(OutboxEvent.EventStatus.PENDING)
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build())
+                .collect(Collectors.toList()));
+    }
+    
+    // An order cancelled or rejected while its reservation was in flight misses the move to PROCESSING and keeps
+    // the stock it was just given; queue a release for it. Orders that moved some other way keep theirs.
+    void releaseStranded(Collection<String> reserved, Collection<Order> moved) {
+        Set<String> stranded = new HashSet<>(reserved);
+        moved.forEach(order -> stranded.remove(order.getId()));
+        if (stranded.isEmpty()) {
+            return;
+        }
+        List<Order> releasing = new ArrayList<>();
+        orderRepository.findAllById(stranded).forEach(order -> {
+            if (releasesStock(order.getStatus())) {
+                releasing.add(order);
+            }
+        });
+        scheduleStockRelease(releasing, true);
+        if (!releasing.isEmpty()) {
+            log.info("Queued the release of {} reservation(s) whose order was settled meanwhile", releasing.size());
+        }
+    }
+    
+    public OutboxStatsResponse stats() {
+        LocalDateTime oldestPending = outboxEventRepository
+                .findFirstByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus.PENDING)
+                .map(OutboxEvent::getCreatedAt)
+                .orElse(null);
+        return OutboxStatsResponse.builder()
+                .pendingEvents(outboxEventRepository.countByStatus(OutboxEvent.EventStatus.PENDING))
+                .failedEvents(outboxEventRepository.countByStatus(OutboxEvent.EventStatus.FAILED))
+                .oldestPendingCreatedAt(oldestPending)
+                .lagMs(oldestPending == null ? 0 : Duration.between(oldestPending, LocalDateTime.now()).toMillis())
+                .build();
+    }
+    
+    private void relayStockReservations(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<String, Order> orders = new HashMap<>();
+        orderRepository.findAllById(events.stream().map(OutboxEvent::getAggregateId).collect(Collectors.toList()))
+                .forEach(order -> orders.put(order.getId(), order));
+        
+        // Orders settled meanwhile (for example by the intake pipeline) need no delivery
+        List<String> settled = new ArrayList<>();
+        List<OutboxEvent> deliveries = new ArrayList<>();
+        List<InventoryReservationRequest> requests = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            Order order = orders.get(event.getAggregateId());
+            if (order == null || order.getStatus() != Order.OrderStatus.PENDING) {
+                settled.add(event.getId());
+                continue;
+            }
+            try {
+                requests.add(objectMapper.readValue(event.getPayload(), InventoryReservationRequest.class));
+                deliveries.add(event);
+            } catch (JsonProcessingException e) {
+                outboxEventRepository.markFailed(event.getId(), event.getAttempts() + 1,
+                        "Unreadable payload: " + e.getOriginalMessage());
+            }
+        }
+        outboxEventRepository.markSent(settled, LocalDateTime.now());
+        if (deliveries.isEmpty()) {
+            return;
+        }
+        
+        InventoryBatchReservationResponse response;
+        try {
+            response = inventoryClient.reserveInventoryBatch(InventoryBatchReservationRequest.builder()
+                    .reservations(requests)
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to relay {} stock reservation(s): {}", deliveries.size(), e.getMessage());
+            deliveries.forEach(event -> scheduleRetry(event, e.getMessage()));
+            return;
+        }
+        
+        List<String> reserved = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        Set<String> inProgress = new HashSet<>();
+        for (InventoryReservationResponse result : response.getResults()) {
+            if (RESERVED.equals(result.getStatus())) {
+                reserved.add(result.getReferenceId());
+            } else if (IN_PROGRESS.equals(result.getStatus())) {
+                inProgress.add(result.getReferenceId());
+            } else {
+                rejected.add(result.getReferenceId());
+            }
+        }
+        List<Order> processing =
+                orderRepository.updateStatusIf(reserved, Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING);
+        orderStatsService.recordTransition(processing, Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING);
+        releaseStranded(reserved, processing);
+        orderStatsService.recordTransition(
+                orderRepository.updateStatusIf(rejected, Order.OrderStatus.PENDING, Order.OrderStatus.REJECTED),
+                Order.OrderStatus.PENDING, Order.OrderStatus.REJECTED);
+        // Another call is still placing these reservations; ask again once it has had time to finish
+        deliveries.stream()
+                .filter(event -> inProgress.contains(event.getAggregateId()))
+                .forEach(event -> scheduleRetry(event, "Reservation still in progress in inventory"));
+        outboxEventRepository.markSent(deliveries.stream()
+                .filter(event -> !inProgress.contains(event.getAggregateId()))
+                .map(OutboxEvent::getId)
+                .collect(Collectors.toList()), LocalDateTime.now());
+        log.info("Relayed {} stock reservation(s): {} reserved, {} rejected, {} still in progress",
+                deliveries.size(), reserved.size(), rejected.size(), inProgress.size());
+    }
+    
+    // Releases are rare next to reservations, so each goes out on its own call
+    private void relayStockReleases(List<OutboxEvent> events) {
+        List<String> released = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            InventoryReleaseRequest request;
+            try {
+                request = objectMapper.readValue(event.getPayload(), InventoryReleaseRequest.class);
+            } catch (JsonProcessingException e) {
+                outboxEventRepository.markFailed(event.getId(), event.getAttempts() + 1,
+                        "Unreadable payload: " + e.getOriginalMessage());
+                continue;
+            }
+            try {
+                inventoryClient.releaseReservation(event.getAggregateId(), request);
+                released.add(event.getId());
+            } catch (Exception e) {
+                // Includes a reservation inventory is still placing; the release waits for it to finish
+                log.warn("Failed to release stock for order {}: {}", event.getAggregateId(), e.getMessage());
+                scheduleRetry(event, e.getMessage());
+            }
+        }
+        outboxEventRepository.markSent(released, LocalDateTime.now());
+        if (!released.isEmpty()) {
+            log.info("Relayed {} stock release(s)", released.size());
+        }
+    }
+    
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void scheduleRetry(OutboxEvent event, String error) {
+        int attempts = event.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on outbox event {} for order {} after {} attempt(s): {}",
+                    event.getId(), event.getAggregateId(), attempts, error);
+            outboxEventRepository.markFailed(event.getId(), attempts, error);
+            return;
+        }
+        long jittered = backoff.delayMs(attempts);
+        outboxEventRepository.markRetry(event.getId(), attempts,
+                LocalDateTime.now().plus(Duration.ofMillis(jittered)), error);
+    }
+}
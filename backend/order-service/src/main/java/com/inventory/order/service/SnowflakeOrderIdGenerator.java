@@ -0,0 +1,115 @@
+package com.inventory.order.service;
+
+import com.inventory.order.repository.OrderIdNodeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style IDs: 41 bits of milliseconds since 2024-01-01, a 10-bit node number and a 12-bit sequence,
+// written as 13 fixed-width Crockford base32 digits so the string order of IDs is their creation order. Node
+// numbers are leased from Mongo so no two live replicas share one, unless order.id.node-id pins it.
+@Component
+@Slf4j
+public class SnowflakeOrderIdGenerator implements OrderIdGenerator {
+    
+    private static final String PREFIX = "ORD-";
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH_MS = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_NODES = 1 << NODE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+    
+    private final OrderIdNodeRepository orderIdNodeRepository;
+    private final int configuredNodeId;
+    private final Duration nodeLease;
+    private final String owner = UUID.randomUUID().toString();
+    // Milliseconds since the epoch shifted left by SEQUENCE_BITS, plus the sequence within that millisecond
+    private final AtomicLong lastState = new AtomicLong();
+    private volatile int nodeId;
+    private volatile long leaseDeadlineMs;
+    
+    public SnowflakeOrderIdGenerator(OrderIdNodeRepository orderIdNodeRepository,
+                                     @Value("${order.id.node-id:-1}") int configuredNodeId,
+                                     @Value("${order.id.node-lease-ms:600000}") long nodeLeaseMs) {
+        this.orderIdNodeRepository = orderIdNodeRepository;
+        this.configuredNodeId = configuredNodeId;
+        this.nodeLease = Duration.ofMillis(nodeLeaseMs);
+    }
+    
+    @PostConstruct
+    public synchronized void acquireNode() {
+        if (configuredNodeId >= 0) {
+            if (configuredNodeId >= MAX_NODES) {
+                throw new IllegalStateException("order.id.node-id must be below " + MAX_NODES);
+            }
+            nodeId = configuredNodeId;
+            leaseDeadlineMs = Long.MAX_VALUE;
+            return;
+        }
+        int start = ThreadLocalRandom.current().nextInt(MAX_NODES);
+        for (int i = 0; i < MAX_NODES; i++) {
+            int candidate = (start + i) % MAX_NODES;
+            if (claim(candidate)) {
+                nodeId = candidate;
+                log.info("Leased order ID node {}", candidate);
+                return;
+            }
+        }
+        throw new IllegalStateException("All " + MAX_NODES + " order ID nodes are leased");
+    }
+    
+    @Scheduled(fixedDelayString = "${order.id.node-renew-interval-ms:60000}")
+    public synchronized void renewNode() {
+        if (configuredNodeId >= 0 || claim(nodeId)) {
+            return;
+        }
+        // The lease lapsed and another replica took the node: move to a free one before issuing more IDs
+        log.error("Lost the lease on order ID node {}, acquiring another", nodeId);
+        acquireNode();
+    }
+    
+    @Override
+    public String nextId() {
+        if (System.currentTimeMillis() >= leaseDeadlineMs) {
+            renewNode();
+        }
+        // A new millisecond restarts the sequence. Within the same one, or after the clock steps back, IDs count
+        // on from the last one; an exhausted sequence carries into the next millisecond instead of waiting for it
+        long state = lastState.updateAndGet(last ->
+                Math.max((System.currentTimeMillis() - EPOCH_MS) << SEQUENCE_BITS, last + 1));
+        long id = (state >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | (long) nodeId << SEQUENCE_BITS
+                | state & SEQUENCE_MASK;
+        return PREFIX + encode(id);
+    }
+    
+    private boolean claim(int candidate) {
+        long claimedAtMs = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        if (!orderIdNodeRepository.claim(candidate, owner, now, now.plus(nodeLease))) {
+            return false;
+        }
+        leaseDeadlineMs = claimedAtMs + nodeLease.toMillis();
+        return true;
+    }
+    
+    private static String encode(long id) {
+        char[] encoded = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            encoded[i] = DIGITS[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(encoded);
+    }
+}
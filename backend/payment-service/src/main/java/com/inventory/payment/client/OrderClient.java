@@ -1,13 +1,14 @@
 package com.inventory.payment.client;
 
+import com.inventory.payment.dto.OrderPaymentStatusBatchRequest;
+import com.inventory.payment.dto.OrderPaymentStatusBatchResponse;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
-import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestBody;
 
 @FeignClient(name = "order-service")
 public interface OrderClient {
     
-    @PutMapping("/api/orders/{orderId}/payment-status")
-    void updateOrderPaymentStatus(@PathVariable String orderId, @RequestParam String status);
+    @PutMapping("/api/orders/payment-status")
+    OrderPaymentStatusBatchResponse updateOrderPaymentStatuses(@RequestBody OrderPaymentStatusBatchRequest request);
 }
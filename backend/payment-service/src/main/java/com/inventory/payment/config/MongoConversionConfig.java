@@ -0,0 +1,76 @@
+package com.inventory.payment.config;
+
+import com.inventory.payment.model.Money;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Currency;
+
+@Configuration
+public class MongoConversionConfig {
+    
+    private static final String MINOR_UNITS = "minorUnits";
+    private static final String CURRENCY = "currency";
+    
+    // Money is stored as { minorUnits: <Int64>, currency: <ISO code> } so Mongo can $inc and $sum it exactly
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(Arrays.asList(
+                MoneyWriter.INSTANCE, MoneyReader.INSTANCE, LegacyStringMoneyReader.INSTANCE,
+                LegacyDecimalMoneyReader.INSTANCE));
+    }
+    
+    @WritingConverter
+    enum MoneyWriter implements Converter<Money, Document> {
+        INSTANCE;
+        
+        @Override
+        public Document convert(Money source) {
+            return new Document(MINOR_UNITS, source.getMinorUnits())
+                    .append(CURRENCY, source.getCurrency().getCurrencyCode());
+        }
+    }
+    
+    @ReadingConverter
+    enum MoneyReader implements Converter<Document, Money> {
+        INSTANCE;
+        
+        @Override
+        public Money convert(Document source) {
+            String currency = source.getString(CURRENCY);
+            return Money.ofMinor(((Number) source.get(MINOR_UNITS)).longValue(),
+                    currency == null ? Money.DEFAULT_CURRENCY : Currency.getInstance(currency));
+        }
+    }
+    
+    // Amounts written before Money were BigDecimal strings in the default currency; half-even matches how they
+    // would have been rounded for display
+    @ReadingConverter
+    enum LegacyStringMoneyReader implements Converter<String, Money> {
+        INSTANCE;
+        
+        @Override
+        public Money convert(String source) {
+            return Money.of(new BigDecimal(source), Money.DEFAULT_CURRENCY, RoundingMode.HALF_EVEN);
+        }
+    }
+    
+    @ReadingConverter
+    enum LegacyDecimalMoneyReader implements Converter<Decimal128, Money> {
+        INSTANCE;
+        
+        @Override
+        public Money convert(Decimal128 source) {
+            return Money.of(source.bigDecimalValue(), Money.DEFAULT_CURRENCY, RoundingMode.HALF_EVEN);
+        }
+    }
+}
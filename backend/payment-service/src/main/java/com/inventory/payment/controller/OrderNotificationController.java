@@ -0,0 +1,56 @@
+package com.inventory.payment.controller;
+
+import com.inventory.payment.dto.NotificationReplayResponse;
+import com.inventory.payment.dto.OrderNotificationResponse;
+import com.inventory.payment.dto.OrderNotificationStatsResponse;
+import com.inventory.payment.service.OrderNotificationRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/payments/notifications")
+@RequiredArgsConstructor
+@Tag(name = "Order Notification API", description = "Delivery state of payment status updates sent to orders")
+public class OrderNotificationController {
+    
+    private static final int MAX_FAILED_PAGE = 1000;
+    
+    private final OrderNotificationRelay orderNotificationRelay;
+    
+    @GetMapping("/stats")
+    @Operation(summary = "Get notification queue depth, dead letters and delivery lag")
+    public ResponseEntity<OrderNotificationStatsResponse> getNotificationStats() {
+        OrderNotificationStatsResponse stats = orderNotificationRelay.stats();
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/failed")
+    @Operation(summary = "List dead-lettered notifications, oldest first")
+    public ResponseEntity<List<OrderNotificationResponse>> getFailedNotifications(
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_FAILED_PAGE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_FAILED_PAGE);
+        }
+        List<OrderNotificationResponse> notifications = orderNotificationRelay.getFailed(limit);
+        return ResponseEntity.ok(notifications);
+    }
+    
+    @PostMapping("/replay")
+    @Operation(summary = "Requeue dead-lettered notifications for the given payments, or all of them")
+    public ResponseEntity<NotificationReplayResponse> replayNotifications(
+            @RequestParam(required = false) List<String> paymentIds) {
+        NotificationReplayResponse response = orderNotificationRelay.replay(
+                paymentIds == null ? Collections.emptyList() : paymentIds);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,18 +1,30 @@
 package com.inventory.payment.controller;
 
+import com.inventory.payment.dto.ExportFormat;
 import com.inventory.payment.dto.PaymentRequest;
 import com.inventory.payment.dto.PaymentResponse;
 import com.inventory.payment.model.Payment;
+import com.inventory.payment.service.IdempotencyService;
+import com.inventory.payment.service.PaymentExportService;
 import com.inventory.payment.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -20,15 +32,57 @@ import java.util.List;
 @Tag(name = "Payment API", description = "Endpoints for managing payments")
 public class PaymentController {
     
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final PaymentExportService paymentExportService;
     
     @PostMapping
-    @Operation(summary = "Process a new payment")
+    @Operation(summary = "Accept a payment and settle it in the background; poll it or pass a callback URL")
     public ResponseEntity<PaymentResponse> processPayment(
             @Valid @RequestBody PaymentRequest request,
-            @RequestHeader("X-User-Id") String userId) {
-        PaymentResponse payment = paymentService.processPayment(request, userId);
-        return new ResponseEntity<>(payment, HttpStatus.CREATED);
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("process-payment", userId, idempotencyKey, request, PaymentResponse.class,
+                () -> {
+                    PaymentResponse payment = paymentService.processPayment(request, userId);
+                    return ResponseEntity.accepted()
+                            .location(URI.create("/api/payments/" + payment.getId()))
+                            .body(payment);
+                });
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export the payments made in a date range as CSV or newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = outputStream -> {
+            try (OutputStream out = gzip
+                    ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE)
+                    : new BufferedOutputStream(outputStream, EXPORT_BUFFER_SIZE)) {
+                paymentExportService.export(from, to, format, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("payments-" + from.toLocalDate() + "-" + to.toLocalDate() + "."
+                                + format.getExtension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
     
     @GetMapping("/{id}")
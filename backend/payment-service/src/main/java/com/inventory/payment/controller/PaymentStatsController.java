@@ -0,0 +1,44 @@
+package com.inventory.payment.controller;
+
+import com.inventory.payment.dto.PaymentStatsResponse;
+import com.inventory.payment.dto.StatsRebuildResponse;
+import com.inventory.payment.model.PaymentStatsBucket;
+import com.inventory.payment.service.PaymentStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/payments/stats")
+@RequiredArgsConstructor
+@Tag(name = "Payment Stats API", description = "Pre-aggregated payment counts and amounts over time")
+public class PaymentStatsController {
+    
+    private final PaymentStatsService paymentStatsService;
+    
+    @GetMapping
+    @Operation(summary = "Get payment counts and amounts by status and method per minute, hour or day")
+    public ResponseEntity<PaymentStatsResponse> getPaymentStats(
+            @RequestParam(defaultValue = "HOUR") PaymentStatsBucket.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        PaymentStatsResponse stats = paymentStatsService.getStats(granularity, from, to);
+        return ResponseEntity.ok(stats);
+    }
+    
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild every stats bucket from payment history")
+    public ResponseEntity<StatsRebuildResponse> rebuildPaymentStats() {
+        StatsRebuildResponse response = paymentStatsService.rebuild();
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,25 @@
+package com.inventory.payment.dto;
+
+import com.inventory.payment.model.OrderNotification;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderNotificationResponse {
+    
+    private String paymentId;
+    private String orderId;
+    private String paymentStatus;
+    private OrderNotification.NotificationStatus status;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
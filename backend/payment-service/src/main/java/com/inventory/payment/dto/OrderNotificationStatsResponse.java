@@ -0,0 +1,21 @@
+package com.inventory.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderNotificationStatsResponse {
+    
+    private long pendingNotifications;
+    private long failedNotifications;
+    private LocalDateTime oldestPendingQueuedAt;
+    // Age of the oldest undelivered notification; zero when the queue is drained
+    private long lagMs;
+}
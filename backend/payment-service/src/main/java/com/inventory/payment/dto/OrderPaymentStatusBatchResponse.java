@@ -0,0 +1,29 @@
+package com.inventory.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPaymentStatusBatchResponse {
+    
+    // One per update, in request order
+    private List<Result> results;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        
+        private String orderId;
+        // UPDATED, UNCHANGED or NOT_FOUND
+        private String outcome;
+    }
+}
@@ -6,9 +6,11 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Digits;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
 import java.math.BigDecimal;
 
 @Data
@@ -25,10 +27,15 @@ public class PaymentRequest {
     
     @NotNull(message = "Amount is required")
     @Min(value = 0, message = "Amount cannot be negative")
+    @Digits(integer = 15, fraction = 2, message = "Amount must have at most 2 decimal places")
     private BigDecimal amount;
     
     @NotNull(message = "Payment method is required")
     private Payment.PaymentMethod paymentMethod;
     
     private String paymentGateway;
+    
+    // Receives the settled payment as a POST once processing finishes; its host must be on the callback allow-list
+    @Pattern(regexp = "https?://\\S+", message = "Callback URL must be an http or https URL")
+    private String callbackUrl;
 }
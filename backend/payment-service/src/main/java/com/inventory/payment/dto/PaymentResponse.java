@@ -23,6 +23,8 @@ public class PaymentResponse {
     private Payment.PaymentStatus status;
     private String transactionId;
     private String paymentGateway;
+    private String callbackUrl;
+    private String failureReason;
     private LocalDateTime paymentDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,38 @@
+package com.inventory.payment.dto;
+
+import com.inventory.payment.model.PaymentStatsBucket;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatsResponse {
+    
+    private PaymentStatsBucket.Granularity granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // Only buckets with payments are listed
+    private List<Bucket> buckets;
+    // Per status and per payment method across the whole range
+    private Map<String, PaymentStatsBucket.Totals> statusTotals;
+    private Map<String, PaymentStatsBucket.Totals> methodTotals;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        
+        private LocalDateTime bucketStart;
+        private Map<String, PaymentStatsBucket.Totals> statuses;
+        private Map<String, PaymentStatsBucket.Totals> methods;
+    }
+}
@@ -0,0 +1,17 @@
+package com.inventory.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsRebuildResponse {
+    
+    private long documentsScanned;
+    private long bucketsWritten;
+    private long elapsedMs;
+}
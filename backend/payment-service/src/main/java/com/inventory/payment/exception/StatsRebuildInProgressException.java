@@ -0,0 +1,8 @@
+package com.inventory.payment.exception;
+
+public class StatsRebuildInProgressException extends RuntimeException {
+    
+    public StatsRebuildInProgressException(String message) {
+        super(message);
+    }
+}
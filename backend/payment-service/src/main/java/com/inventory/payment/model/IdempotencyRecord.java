@@ -0,0 +1,40 @@
+package com.inventory.payment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// The outcome of a request sent with an Idempotency-Key header, kept so retries of it replay the same response.
+// While the first attempt runs the record is IN_PROGRESS and leased to it; a lapsed lease lets a retry take over.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+    
+    // operation:userId:key
+    @Id
+    private String id;
+    private String requestHash;
+    private Status status;
+    private String owner;
+    private LocalDateTime leaseUntil;
+    private Integer responseStatus;
+    private String responseLocation;
+    private String responseBody;
+    private LocalDateTime createdAt;
+    
+    @Indexed(name = "idempotency_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+    
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+}
@@ -0,0 +1,48 @@
+package com.inventory.payment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// The payment status the order service still has to learn about, one document per payment. A newer status
+// replaces an undelivered one, so the order service never receives a payment's statuses out of order.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "order_notifications")
+@CompoundIndex(name = "status_next_attempt_at_idx", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class OrderNotification {
+    
+    // The payment ID
+    @Id
+    private String id;
+    @Indexed
+    private String orderId;
+    private String paymentStatus;
+    // Bumped by every enqueue, so finishing the delivery of an older status never settles a newer one
+    private long revision;
+    private NotificationStatus status;
+    private int attempts;
+    // Due time for the next delivery; a relay claiming the notification pushes it forward as a lease
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    // Delivered notifications are kept for a week
+    @Indexed(expireAfterSeconds = 604800)
+    private LocalDateTime sentAt;
+    
+    public enum NotificationStatus {
+        PENDING,
+        SENT,
+        FAILED
+    }
+}
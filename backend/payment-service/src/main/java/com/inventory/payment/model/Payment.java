@@ -5,31 +5,56 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "payments")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_processing_lease_until_idx", def = "{'status': 1, 'processingLeaseUntil': 1}"),
+        // Serves the notification sweep over recently settled payments
+        @CompoundIndex(name = "status_updated_at_idx", def = "{'status': 1, 'updatedAt': 1}")
+})
 public class Payment {
     
     @Id
     private String id;
+    @Indexed
     private String orderId;
+    @Indexed
     private String customerId;
-    private BigDecimal amount;
+    private Money amount;
+    @Indexed
     private PaymentMethod paymentMethod;
+    @Indexed
     private PaymentStatus status;
     private String transactionId;
     private String paymentGateway;
+    private String callbackUrl;
+    private String failureReason;
+    // While PROCESSING: when the processor that owns the payment is presumed lost and another may settle it
+    private LocalDateTime processingLeaseUntil;
+    // Token of the processor run holding the lease; only that run renews it and calls the gateway again
+    private String processingOwner;
+    @Indexed
     private LocalDateTime paymentDate;
     private String createdBy;
     private LocalDateTime createdAt;
+    // Serves the stats rebuild's replay of payments written while it scanned
+    @Indexed
     private LocalDateTime updatedAt;
+    // Appended to by every status change, oldest first
+    private List<PaymentStatusChange> statusHistory;
     
     public enum PaymentMethod {
         CREDIT_CARD,
@@ -45,6 +70,20 @@ public class Payment {
         PROCESSING,
         COMPLETED,
         FAILED,
-        REFUNDED
+        REFUNDED;
+        
+        private Set<PaymentStatus> next;
+        
+        static {
+            PENDING.next = EnumSet.of(PROCESSING, FAILED);
+            PROCESSING.next = EnumSet.of(COMPLETED, FAILED);
+            COMPLETED.next = EnumSet.of(REFUNDED);
+            FAILED.next = EnumSet.noneOf(PaymentStatus.class);
+            REFUNDED.next = EnumSet.noneOf(PaymentStatus.class);
+        }
+        
+        public boolean canTransitionTo(PaymentStatus status) {
+            return next.contains(status);
+        }
     }
 }
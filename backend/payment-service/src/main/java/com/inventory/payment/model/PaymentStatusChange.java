@@ -0,0 +1,20 @@
+package com.inventory.payment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One entry of a payment's status history
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusChange {
+    
+    private Payment.PaymentStatus from;
+    private Payment.PaymentStatus to;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,17 @@
+package com.inventory.payment.repository;
+
+import com.inventory.payment.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepositoryCustom {
+    
+    // Creates the record for a new key, or takes over one whose attempt stopped renewing its lease
+    boolean claim(String id, String requestHash, String owner, LocalDateTime now, LocalDateTime leaseUntil,
+                  LocalDateTime expiresAt);
+    
+    boolean complete(String id, String owner, IdempotencyRecord response, LocalDateTime expiresAt);
+    
+    // Forgets a failed attempt so the key can be retried
+    void release(String id, String owner);
+}
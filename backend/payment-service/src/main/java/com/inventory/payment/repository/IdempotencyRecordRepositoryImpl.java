@@ -0,0 +1,62 @@
+package com.inventory.payment.repository;
+
+import com.inventory.payment.model.IdempotencyRecord;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class IdempotencyRecordRepositoryImpl implements IdempotencyRecordRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public boolean claim(String id, String requestHash, String owner, LocalDateTime now, LocalDateTime leaseUntil,
+                         LocalDateTime expiresAt) {
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and("status").is(IdempotencyRecord.Status.IN_PROGRESS)
+                .and("leaseUntil").lt(now));
+        Update update = new Update()
+                .set("requestHash", requestHash)
+                .set("owner", owner)
+                .set("leaseUntil", leaseUntil)
+                .set("expiresAt", expiresAt)
+                .setOnInsert("status", IdempotencyRecord.Status.IN_PROGRESS)
+                .setOnInsert("createdAt", now);
+        try {
+            UpdateResult result = mongoTemplate.upsert(query, update, IdempotencyRecord.class);
+            return result.getModifiedCount() == 1 || result.getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // The key is completed or leased to a live attempt, so the upsert tried to insert it again
+            return false;
+        }
+    }
+    
+    @Override
+    public boolean complete(String id, String owner, IdempotencyRecord response, LocalDateTime expiresAt) {
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and("owner").is(owner)
+                .and("status").is(IdempotencyRecord.Status.IN_PROGRESS));
+        Update update = new Update()
+                .set("status", IdempotencyRecord.Status.COMPLETED)
+                .set("responseStatus", response.getResponseStatus())
+                .set("responseLocation", response.getResponseLocation())
+                .set("responseBody", response.getResponseBody())
+                .set("expiresAt", expiresAt)
+                .unset("leaseUntil");
+        return mongoTemplate.updateFirst(query, update, IdempotencyRecord.class).getModifiedCount() == 1;
+    }
+    
+    @Override
+    public void release(String id, String owner) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(id)
+                .and("owner").is(owner)
+                .and("status").is(IdempotencyRecord.Status.IN_PROGRESS)), IdempotencyRecord.class);
+    }
+}
@@ -0,0 +1,25 @@
+package com.inventory.payment.repository;
+
+import com.inventory.payment.model.OrderNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderNotificationRepository extends MongoRepository<OrderNotification, String>,
+        OrderNotificationRepositoryCustom {
+    
+    List<OrderNotification> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            OrderNotification.NotificationStatus status, LocalDateTime dueBy, Pageable pageable);
+    
+    List<OrderNotification> findByStatusOrderByUpdatedAtAsc(OrderNotification.NotificationStatus status,
+                                                            Pageable pageable);
+    
+    long countByStatus(OrderNotification.NotificationStatus status);
+    
+    Optional<OrderNotification> findFirstByStatusOrderByUpdatedAtAsc(OrderNotification.NotificationStatus status);
+}
@@ -0,0 +1,28 @@
+package com.inventory.payment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface OrderNotificationRepositoryCustom {
+    
+    // Queues the payment's latest status for delivery, replacing any status not yet delivered. A notification
+    // that is being delivered keeps its lease, so the new status goes out only after the old one
+    void enqueue(String paymentId, String orderId, String paymentStatus, LocalDateTime now);
+    
+    // Takes a due PENDING notification by pushing its due time to leaseUntil; false if another relay got there first
+    boolean claim(String id, LocalDateTime dueBy, LocalDateTime leaseUntil);
+    
+    // The mark methods apply only to the revision that was delivered and return false once it was replaced
+    boolean markSent(String id, long revision, LocalDateTime sentAt);
+    
+    boolean markRetry(String id, long revision, int attempts, LocalDateTime nextAttemptAt, String error);
+    
+    // Dead-letters the notification; it stays in the collection for inspection and replay
+    boolean markFailed(String id, long revision, int attempts, String error);
+    
+    // Makes a replaced notification due again right away instead of when the lease of its old status runs out
+    void release(String id, LocalDateTime now);
+    
+    // Requeues dead-lettered notifications, all of them when ids is empty; returns how many were requeued
+    long replay(Collection<String> ids, LocalDateTime now);
+}
@@ -0,0 +1,107 @@
+package com.inventory.payment.repository;
+
+import com.inventory.payment.model.OrderNotification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class OrderNotificationRepositoryImpl implements OrderNotificationRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public void enqueue(String paymentId, String orderId, String paymentStatus, LocalDateTime now) {
+        Query query = new Query(Criteria.where("_id").is(paymentId));
+        Update update = new Update()
+                .set("orderId", orderId)
+                .set("paymentStatus", paymentStatus)
+                .inc("revision", 1)
+                .set("status", OrderNotification.NotificationStatus.PENDING)
+                .set("attempts", 0)
+                .max("nextAttemptAt", now)
+                .set("updatedAt", now)
+                .unset("lastError")
+                .unset("sentAt")
+                .setOnInsert("createdAt", now);
+        try {
+            mongoTemplate.upsert(query, update, OrderNotification.class);
+        } catch (DuplicateKeyException e) {
+            // A concurrent enqueue inserted the document first; now it exists, so this one updates it
+            mongoTemplate.upsert(query, update, OrderNotification.class);
+        }
+    }
+    
+    @Override
+    public boolean claim(String id, LocalDateTime dueBy, LocalDateTime leaseUntil) {
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and("status").is(OrderNotification.NotificationStatus.PENDING)
+                .and("nextAttemptAt").lte(dueBy));
+        return mongoTemplate.updateFirst(query, Update.update("nextAttemptAt", leaseUntil), OrderNotification.class)
+                .getModifiedCount() == 1;
+    }
+    
+    @Override
+    public boolean markSent(String id, long revision, LocalDateTime sentAt) {
+        return update(id, revision, new Update()
+                .set("status", OrderNotification.NotificationStatus.SENT)
+                .set("sentAt", sentAt)
+                .unset("lastError"));
+    }
+    
+    @Override
+    public boolean markRetry(String id, long revision, int attempts, LocalDateTime nextAttemptAt, String error) {
+        return update(id, revision, new Update()
+                .set("attempts", attempts)
+                .set("nextAttemptAt", nextAttemptAt)
+                .set("lastError", error));
+    }
+    
+    @Override
+    public boolean markFailed(String id, long revision, int attempts, String error) {
+        return update(id, revision, new Update()
+                .set("status", OrderNotification.NotificationStatus.FAILED)
+                .set("attempts", attempts)
+                .set("lastError", error)
+                .set("updatedAt", LocalDateTime.now()));
+    }
+    
+    @Override
+    public void release(String id, LocalDateTime now) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(id)
+                        .and("status").is(OrderNotification.NotificationStatus.PENDING)),
+                Update.update("nextAttemptAt", now),
+                OrderNotification.class);
+    }
+    
+    @Override
+    public long replay(Collection<String> ids, LocalDateTime now) {
+        Criteria criteria = Criteria.where("status").is(OrderNotification.NotificationStatus.FAILED);
+        if (!ids.isEmpty()) {
+            criteria.and("_id").in(ids);
+        }
+        return mongoTemplate.updateMulti(
+                new Query(criteria),
+                new Update()
+                        .set("status", OrderNotification.NotificationStatus.PENDING)
+                        .set("attempts", 0)
+                        .set("nextAttemptAt", now)
+                        .set("updatedAt", now)
+                        .unset("lastError"),
+                OrderNotification.class).getModifiedCount();
+    }
+    
+    private boolean update(String id, long revision, Update update) {
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and("revision").is(revision)
+                .and("status").is(OrderNotification.NotificationStatus.PENDING));
+        return mongoTemplate.updateFirst(query, update, OrderNotification.class).getModifiedCount() == 1;
+    }
+}
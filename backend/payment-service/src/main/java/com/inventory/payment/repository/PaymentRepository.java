@@ -1,15 +1,19 @@
 package com.inventory.payment.repository;
 
 import com.inventory.payment.model.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaymentRepository extends MongoRepository<Payment, String> {
+public interface PaymentRepository extends MongoRepository<Payment, String>, PaymentRepositoryCustom {
     
     Optional<Payment> findByOrderId(String orderId);
     
@@ -20,4 +24,18 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
     List<Payment> findByPaymentDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     
     List<Payment> findByPaymentMethod(Payment.PaymentMethod paymentMethod);
+    
+    List<Payment> findByStatusInAndUpdatedAtBetween(Collection<Payment.PaymentStatus> statuses, LocalDateTime from,
+                                                    LocalDateTime to, Pageable pageable);
+    
+    @Query("{}")
+    Stream<Payment> streamAllBy();
+    
+    // Cursor over the payments made in [from, to), oldest first
+    @Query(value = "{ 'paymentDate': { '$gte': ?0, '$lt': ?1 } }", sort = "{ 'paymentDate': 1 }")
+    Stream<Payment> streamByPaymentDate(LocalDateTime from, LocalDateTime to);
+    
+    // Cursor over the payments written at or after since
+    @Query("{ 'updatedAt': { '$gte': ?0 } }")
+    Stream<Payment> streamByUpdatedAtFrom(LocalDateTime since);
 }
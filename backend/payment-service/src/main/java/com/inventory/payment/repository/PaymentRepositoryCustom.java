@@ -0,0 +1,25 @@
+package com.inventory.payment.repository;
+
+import com.inventory.payment.model.Payment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface PaymentRepositoryCustom {
+    
+    // PROCESSING payments whose lease ran out, or that never had one, oldest first
+    List<Payment> findUnleasedProcessing(LocalDateTime now, int limit);
+    
+    boolean claimProcessing(String id, String owner, LocalDateTime now, LocalDateTime leaseUntil);
+    
+    // False once the payment has settled or another run has claimed it
+    boolean renewProcessing(String id, String owner, LocalDateTime leaseUntil);
+    
+    // Moves a PROCESSING payment to its outcome; empty if it was settled or changed by someone else first
+    Optional<Payment> settle(String id, Payment.PaymentStatus outcome, String failureReason, LocalDateTime now);
+    
+    // Moves a payment from the expected status; empty if its status was changed by someone else first
+    Optional<Payment> transitionStatus(String id, Payment.PaymentStatus expected, Payment.PaymentStatus status,
+                                       LocalDateTime now);
+}
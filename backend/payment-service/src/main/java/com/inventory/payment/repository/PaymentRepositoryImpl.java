@@ -0,0 +1,91 @@
+package com.inventory.payment.repository;
+
+import com.inventory.payment.model.Payment;
+import com.inventory.payment.model.PaymentStatusChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class PaymentRepositoryImpl implements PaymentRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public List<Payment> findUnleasedProcessing(LocalDateTime now, int limit) {
+        Query query = new Query(unleasedProcessing(now))
+                .with(Sort.by("processingLeaseUntil"))
+                .limit(limit);
+        return mongoTemplate.find(query, Payment.class);
+    }
+    
+    @Override
+    public boolean claimProcessing(String id, String owner, LocalDateTime now, LocalDateTime leaseUntil) {
+        Query query = new Query(Criteria.where("_id").is(id).andOperator(unleasedProcessing(now)));
+        Update update = new Update()
+                .set("processingLeaseUntil", leaseUntil)
+                .set("processingOwner", owner);
+        return mongoTemplate.updateFirst(query, update, Payment.class).getModifiedCount() == 1;
+    }
+    
+    @Override
+    public boolean renewProcessing(String id, String owner, LocalDateTime leaseUntil) {
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and("status").is(Payment.PaymentStatus.PROCESSING)
+                .and("processingOwner").is(owner));
+        return mongoTemplate.updateFirst(query, Update.update("processingLeaseUntil", leaseUntil), Payment.class)
+                .getModifiedCount() == 1;
+    }
+    
+    @Override
+    public Optional<Payment> settle(String id, Payment.PaymentStatus outcome, String failureReason,
+                                    LocalDateTime now) {
+        Query query = new Query(Criteria.where("_id").is(id).and("status").is(Payment.PaymentStatus.PROCESSING));
+        Update update = statusUpdate(Payment.PaymentStatus.PROCESSING, outcome, now)
+                .unset("processingLeaseUntil")
+                .unset("processingOwner");
+        if (failureReason != null) {
+            update.set("failureReason", failureReason);
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), Payment.class));
+    }
+    
+    // A payment moved to or from PROCESSING by hand drops its lease, so recovery picks it up or leaves it alone
+    @Override
+    public Optional<Payment> transitionStatus(String id, Payment.PaymentStatus expected, Payment.PaymentStatus status,
+                                              LocalDateTime now) {
+        Query query = new Query(Criteria.where("_id").is(id).and("status").is(expected));
+        Update update = statusUpdate(expected, status, now)
+                .unset("processingLeaseUntil")
+                .unset("processingOwner");
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), Payment.class));
+    }
+    
+    private static Update statusUpdate(Payment.PaymentStatus from, Payment.PaymentStatus to, LocalDateTime now) {
+        return new Update()
+                .set("status", to)
+                .set("updatedAt", now)
+                .push("statusHistory", PaymentStatusChange.builder()
+                        .from(from)
+                        .to(to)
+                        .changedAt(now)
+                        .build());
+    }
+    
+    // Payments left PROCESSING before leases existed have none and are treated as expired
+    private static Criteria unleasedProcessing(LocalDateTime now) {
+        return Criteria.where("status").is(Payment.PaymentStatus.PROCESSING).orOperator(
+                Criteria.where("processingLeaseUntil").lte(now),
+                Criteria.where("processingLeaseUntil").exists(false));
+    }
+}
@@ -0,0 +1,18 @@
+package com.inventory.payment.repository;
+
+import com.inventory.payment.model.PaymentStatsBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentStatsBucketRepository
+        extends MongoRepository<PaymentStatsBucket, String>, PaymentStatsBucketRepositoryCustom {
+    
+    List<PaymentStatsBucket> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+            PaymentStatsBucket.Granularity granularity, LocalDateTime from, LocalDateTime to);
+    
+    boolean existsBySchemaVersionNot(int schemaVersion);
+}
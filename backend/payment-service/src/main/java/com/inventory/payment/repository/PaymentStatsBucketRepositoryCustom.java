@@ -0,0 +1,20 @@
+package com.inventory.payment.repository;
+
+import com.inventory.payment.model.PaymentStatsBucket;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface PaymentStatsBucketRepositoryCustom {
+    
+    // Adds each delta's counts and amounts (which may be negative) to its bucket, creating missing buckets
+    void applyDeltas(Collection<PaymentStatsBucket> deltas);
+    
+    // Swaps in a complete set of buckets in one step; readers never see the collection empty or half-written
+    void replaceAll(Collection<PaymentStatsBucket> buckets);
+    
+    // Single-instance lock for rebuilds; false while another instance holds an unexpired one
+    boolean tryLockRebuild(String owner, LocalDateTime now, LocalDateTime lockedUntil);
+    
+    void unlockRebuild(String owner);
+}
@@ -0,0 +1,97 @@
+package com.inventory.payment.repository;
+
+import com.inventory.payment.model.PaymentStatsBucket;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class PaymentStatsBucketRepositoryImpl implements PaymentStatsBucketRepositoryCustom {
+    
+    private static final String LOCK_COLLECTION = "payment_stats_locks";
+    private static final String REBUILD_LOCK = "rebuild";
+    
+    private final MongoTemplate mongoTemplate;
+    
+    // One unordered bulk of $inc upserts, so a write touches every granularity in a single round trip
+    @Override
+    public void applyDeltas(Collection<PaymentStatsBucket> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentStatsBucket.class);
+        for (PaymentStatsBucket delta : deltas) {
+            Update update = new Update()
+                    .setOnInsert("granularity", delta.getGranularity())
+                    .setOnInsert("bucketStart", delta.getBucketStart())
+                    .setOnInsert("schemaVersion", PaymentStatsBucket.SCHEMA_VERSION);
+            if (delta.getExpiresAt() != null) {
+                update.setOnInsert("expiresAt", delta.getExpiresAt());
+            }
+            increment(update, "statuses", delta.getStatuses());
+            increment(update, "methods", delta.getMethods());
+            bulk.upsert(new Query(Criteria.where("_id").is(delta.getId())), update);
+        }
+        bulk.execute();
+    }
+    
+    // Written to a staging collection with the same indexes, then renamed over the live one. Increments that reach
+    // the live collection after the rebuild's scan are dropped with it
+    @Override
+    public void replaceAll(Collection<PaymentStatsBucket> buckets) {
+        String live = mongoTemplate.getCollectionName(PaymentStatsBucket.class);
+        String staging = live + "_rebuild";
+        mongoTemplate.dropCollection(staging);
+        IndexOperations indexOps = mongoTemplate.indexOps(staging);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(PaymentStatsBucket.class)
+                .forEach(indexOps::ensureIndex);
+        mongoTemplate.insert(buckets, staging);
+        mongoTemplate.getCollection(staging).renameCollection(
+                new MongoNamespace(mongoTemplate.getDb().getName(), live),
+                new RenameCollectionOptions().dropTarget(true));
+    }
+    
+    // Matches only a missing or expired lock; when one is held the upsert tries to insert a second "rebuild"
+    // document and fails on its _id
+    @Override
+    public boolean tryLockRebuild(String owner, LocalDateTime now, LocalDateTime lockedUntil) {
+        Query query = new Query(Criteria.where("_id").is(REBUILD_LOCK).and("lockedUntil").lte(now));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("lockedUntil", lockedUntil);
+        try {
+            mongoTemplate.upsert(query, update, LOCK_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+    
+    @Override
+    public void unlockRebuild(String owner) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(REBUILD_LOCK).and("owner").is(owner)),
+                LOCK_COLLECTION);
+    }
+    
+    private static void increment(Update update, String field, Map<String, PaymentStatsBucket.Totals> totals) {
+        totals.forEach((key, value) -> {
+            String path = field + "." + key;
+            update.inc(path + ".count", value.getCount())
+                    .inc(path + ".amount.minorUnits", value.getAmount().getMinorUnits())
+                    .set(path + ".amount.currency", value.getAmount().getCurrency().getCurrencyCode());
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.inventory.payment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.payment.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+// Writes export rows as CSV under a header line, or as one JSON object per line. CSV takes the listed columns in
+// order; NDJSON writes every entry of the row, so it may also carry nested values
+final class ExportWriter {
+    
+    private final ExportFormat format;
+    private final List<String> columns;
+    private final OutputStream outputStream;
+    private final ObjectMapper objectMapper;
+    
+    ExportWriter(ExportFormat format, List<String> columns, OutputStream outputStream, ObjectMapper objectMapper)
+            throws IOException {
+        this.format = format;
+        this.columns = columns;
+        this.outputStream = outputStream;
+        this.objectMapper = objectMapper;
+        if (format == ExportFormat.CSV) {
+            writeLine(String.join(",", columns));
+        }
+    }
+    
+    void write(Map<String, Object> row) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            outputStream.write(objectMapper.writeValueAsBytes(row));
+            outputStream.write('\n');
+            return;
+        }
+        StringBuilder line = new StringBuilder();
+        for (String column : columns) {
+            if (line.length() > 0) {
+                line.append(',');
+            }
+            line.append(csvValue(row.get(column)));
+        }
+        writeLine(line.toString());
+    }
+    
+    void flush() throws IOException {
+        outputStream.flush();
+    }
+    
+    private void writeLine(String line) throws IOException {
+        outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+        outputStream.write('\n');
+    }
+    
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
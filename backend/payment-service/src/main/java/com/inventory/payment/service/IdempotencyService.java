@@ -0,0 +1,153 @@
+package com.inventory.payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.payment.exception.IdempotencyKeyReusedException;
+import com.inventory.payment.exception.IdempotentRequestInProgressException;
+import com.inventory.payment.model.IdempotencyRecord;
+import com.inventory.payment.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// Runs a request at most once per Idempotency-Key. The first attempt leases the key and stores its response;
+// retries of the same request replay that response, and retries that arrive while it is still running wait for
+// it. Failed attempts are forgotten so the client can retry them. Keys are scoped to the operation and the user.
+@Service
+@Slf4j
+public class IdempotencyService {
+    
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long INITIAL_POLL_MS = 10;
+    private static final long MAX_POLL_MS = 200;
+    
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration lease;
+    private final Duration retention;
+    private final long waitMs;
+    
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${payment.idempotency.lease-ms:60000}") long leaseMs,
+                              @Value("${payment.idempotency.retention-hours:24}") long retentionHours,
+                              @Value("${payment.idempotency.wait-ms:10000}") long waitMs) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.retention = Duration.ofHours(retentionHours);
+        this.waitMs = waitMs;
+    }
+    
+    public <T> ResponseEntity<T> execute(String operation, String userId, String key, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = operation + ":" + userId + ":" + key;
+        String requestHash = hash(request);
+        String owner = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + waitMs;
+        long pollMs = INITIAL_POLL_MS;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            if (idempotencyRecordRepository.claim(id, requestHash, owner, now, now.plus(lease), now.plus(retention))) {
+                return run(id, owner, action);
+            }
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(id);
+            if (existing.isPresent()) {
+                IdempotencyRecord record = existing.get();
+                if (!requestHash.equals(record.getRequestHash())) {
+                    throw new IdempotencyKeyReusedException(
+                            "Idempotency-Key " + key + " was already used for a different request");
+                }
+                if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                    log.info("Replaying stored response for idempotency key {}", id);
+                    return replay(record, responseType);
+                }
+            }
+            
+            // Another attempt holds the key: wait for its response instead of running the request twice
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IdempotentRequestInProgressException(
+                        "A request with Idempotency-Key " + key + " is still in progress");
+            }
+            try {
+                Thread.sleep(pollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotentRequestInProgressException(
+                        "Interrupted while waiting for the request with Idempotency-Key " + key);
+            }
+            pollMs = Math.min(pollMs * 2, MAX_POLL_MS);
+        }
+    }
+    
+    private <T> ResponseEntity<T> run(String id, String owner, Supplier<ResponseEntity<T>> action) {
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.release(id, owner);
+            throw e;
+        }
+        
+        try {
+            URI location = response.getHeaders().getLocation();
+            IdempotencyRecord outcome = IdempotencyRecord.builder()
+                    .responseStatus(response.getStatusCodeValue())
+                    .responseLocation(location == null ? null : location.toString())
+                    .responseBody(objectMapper.writeValueAsString(response.getBody()))
+                    .build();
+            if (!idempotencyRecordRepository.complete(id, owner, outcome, LocalDateTime.now().plus(retention))) {
+                log.warn("Lease on idempotency key {} lapsed before its response was stored", id);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The request itself succeeded; retries run it again once the lease lapses
+            log.error("Failed to store the response for idempotency key {}: {}", id, e.getMessage());
+        }
+        return response;
+    }
+    
+    private <T> ResponseEntity<T> replay(IdempotencyRecord record, Class<T> responseType) {
+        T body;
+        try {
+            body = objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for idempotency key " + record.getId()
+                    + " is unreadable", e);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getResponseStatus())
+                .header(REPLAYED_HEADER, "true");
+        if (record.getResponseLocation() != null) {
+            builder.location(URI.create(record.getResponseLocation()));
+        }
+        return builder.body(body);
+    }
+    
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] json = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return Base64.getEncoder().encodeToString(digest.digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.inventory.payment.service;
+
+import com.inventory.payment.client.OrderClient;
+import com.inventory.payment.dto.NotificationReplayResponse;
+import com.inventory.payment.dto.OrderPaymentStatusBatchRequest;
+import com.inventory.payment.dto.OrderPaymentStatusBatchResponse;
+import com.inventory.payment.dto.OrderNotificationResponse;
+import com.inventory.payment.dto.OrderNotificationStatsResponse;
+import com.inventory.payment.model.OrderNotification;
+import com.inventory.payment.model.Payment;
+import com.inventory.payment.repository.OrderNotificationRepository;
+import com.inventory.payment.repository.PaymentRepository;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Tells the order service about paid and refunded payments. Status changes are queued in Mongo and delivered off
+// the request thread, one batch call per poll; failed deliveries are retried with exponential backoff and jitter
+// until max-attempts, after which the notification is dead-lettered as FAILED until it is replayed. Settled
+// payments are queued after their write commits, so a periodic sweep queues any the settling call failed to.
+@Component
+@Slf4j
+public class OrderNotificationRelay {
+    
+    private static final String PAID = "PAID";
+    private static final String REFUNDED = "REFUNDED";
+    private static final String NOT_FOUND = "NOT_FOUND";
+    
+    private final OrderNotificationRepository orderNotificationRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderClient orderClient;
+    private final int batchSize;
+    private final Duration lease;
+    private final Backoff backoff;
+    private final int maxAttempts;
+    private final Duration sweepLookback;
+    private final Duration sweepGrace;
+    
+    public OrderNotificationRelay(OrderNotificationRepository orderNotificationRepository,
+                                  PaymentRepository paymentRepository,
+                                  OrderClient orderClient,
+                                  @Value("${payment.notifications.batch-size:100}") int batchSize,
+                                  @Value("${payment.notifications.lease-ms:30000}") long leaseMs,
+                                  @Value("${payment.notifications.initial-backoff-ms:1000}") long initialBackoffMs,
+                                  @Value("${payment.notifications.max-backoff-ms:300000}") long maxBackoffMs,
+                                  @Value("${payment.notifications.max-attempts:10}") int maxAttempts,
+                                  @Value("${payment.notifications.sweep-lookback-ms:86400000}") long sweepLookbackMs,
+                                  @Value("${payment.notifications.sweep-grace-ms:60000}") long sweepGraceMs) {
+        this.orderNotificationRepository = orderNotificationRepository;
+        this.paymentRepository = paymentRepository;
+        this.orderClient = orderClient;
+        // One poll is delivered in one call, and the order service takes at most 500 updates per call
+        if (batchSize > 500) {
+            throw new IllegalStateException("payment.notifications.batch-size must be at most 500");
+        }
+        this.batchSize = batchSize;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.backoff = new Backoff(initialBackoffMs, maxBackoffMs);
+        this.maxAttempts = maxAttempts;
+        // Sent notifications expire after a week; looking further back would queue them all again
+        if (sweepLookbackMs >= Duration.ofDays(7).toMillis()) {
+            throw new IllegalStateException("payment.notifications.sweep-lookback-ms must be under a week");
+        }
+        this.sweepLookback = Duration.ofMillis(sweepLookbackMs);
+        this.sweepGrace = Duration.ofMillis(sweepGraceMs);
+    }
+    
+    // Only statuses the order service tracks are queued; a failure to queue is logged, never thrown at the caller,
+    // and the sweep queues the notification later
+    public void enqueue(Payment payment) {
+        String paymentStatus = notifiedStatus(payment);
+        if (paymentStatus == null) {
+            return;
+        }
+        try {
+            orderNotificationRepository.enqueue(
+                    payment.getId(), payment.getOrderId(), paymentStatus, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Failed to queue {} notification for order {}: {}",
+                    paymentStatus, payment.getOrderId(), e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${payment.notifications.poll-interval-ms:1000}")
+    public void relay() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderNotification> claimed = orderNotificationRepository
+                .findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                        OrderNotification.NotificationStatus.PENDING, now, PageRequest.of(0, batchSize))
+                .stream()
+                .filter(notification -> orderNotificationRepository.claim(notification.getId(), now, now.plus(lease)))
+                .collect(Collectors.toList());
+        if (claimed.isEmpty()) {
+            return;
+        }
+        
+        OrderPaymentStatusBatchResponse response;
+        try {
+            response = orderClient.updateOrderPaymentStatuses(OrderPaymentStatusBatchRequest.builder()
+                    .updates(claimed.stream()
+                            .map(notification -> OrderPaymentStatusBatchRequest.Update.builder()
+                                    .orderId(notification.getOrderId())
+                                    .status(notification.getPaymentStatus())
+                                    .build())
+                            .collect(Collectors.toList()))
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to deliver {} order payment notification(s): {}", claimed.size(), e.getMessage());
+            claimed.forEach(notification -> scheduleRetry(notification, e.getMessage(), isRetryable(e)));
+            return;
+        }
+        
+        // Results come back in request order
+        int delivered = 0;
+        for (int i = 0; i < claimed.size(); i++) {
+            OrderNotification notification = claimed.get(i);
+            if (NOT_FOUND.equals(response.getResults().get(i).getOutcome())) {
+                // Asking again will not make the order appear
+                scheduleRetry(notification, "Order " + notification.getOrderId() + " not found", false);
+            } else {
+                if (!orderNotificationRepository.markSent(notification.getId(), notification.getRevision(),
+                        LocalDateTime.now())) {
+                    released(notification);
+                }
+                delivered++;
+            }
+        }
+        log.info("Delivered {} of {} order payment notification(s)", delivered, claimed.size());
+    }
+    
+    // Queues the notification of every recently settled or refunded payment that has none for its current status.
+    // The grace period keeps it clear of payments whose settling call is about to queue one itself.
+    @Scheduled(fixedDelayString = "${payment.notifications.sweep-interval-ms:60000}")
+    public void sweepUnqueued() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = now.minus(sweepLookback);
+        LocalDateTime to = now.minus(sweepGrace);
+        int queued = 0;
+        List<Payment> payments;
+        int page = 0;
+        do {
+            payments = paymentRepository.findByStatusInAndUpdatedAtBetween(
+                    List.of(Payment.PaymentStatus.COMPLETED, Payment.PaymentStatus.REFUNDED), from, to,
+                    PageRequest.of(page++, batchSize, Sort.by("updatedAt", "id")));
+            Map<String, String> notified = new HashMap<>();
+            orderNotificationRepository.findAllById(payments.stream().map(Payment::getId).collect(Collectors.toList()))
+                    .forEach(notification -> notified.put(notification.getId(), notification.getPaymentStatus()));
+            for (Payment payment : payments) {
+                if (!Objects.equals(notified.get(payment.getId()), notifiedStatus(payment))) {
+                    enqueue(payment);
+                    queued++;
+                }
+            }
+        } while (payments.size() == batchSize);
+        if (queued > 0) {
+            log.warn("Queued {} order payment notification(s) that settlement failed to queue", queued);
+        }
+    }
+    
+    public OrderNotificationStatsResponse stats() {
+        LocalDateTime oldestPending = orderNotificationRepository
+                .findFirstByStatusOrderByUpdatedAtAsc(OrderNotification.NotificationStatus.PENDING)
+                .map(OrderNotification::getUpdatedAt)
+                .orElse(null);
+        return OrderNotificationStatsResponse.builder()
+                .pendingNotifications(orderNotificationRepository.countByStatus(
+                        OrderNotification.NotificationStatus.PENDING))
+                .failedNotifications(orderNotificationRepository.countByStatus(
+                        OrderNotification.NotificationStatus.FAILED))
+                .oldestPendingQueuedAt(oldestPending)
+                .lagMs(oldestPending == null ? 0 : Duration.between(oldestPending, LocalDateTime.now()).toMillis())
+                .build();
+    }
+    
+    public List<OrderNotificationResponse> getFailed(int limit) {
+        return orderNotificationRepository
+                .findByStatusOrderByUpdatedAtAsc(OrderNotification.NotificationStatus.FAILED, PageRequest.of(0, limit))
+                .stream()
+                .map(notification -> OrderNotificationResponse.builder()
+                        .paymentId(notification.getId())
+                        .orderId(notification.getOrderId())
+                        .paymentStatus(notification.getPaymentStatus())
+                        .status(notification.getStatus())
+                        .attempts(notification.getAttempts())
+                        .lastError(notification.getLastError())
+                        .createdAt(notification.getCreatedAt())
+                        .updatedAt(notification.getUpdatedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+    
+    public NotificationReplayResponse replay(Collection<String> paymentIds) {
+        long replayed = orderNotificationRepository.replay(paymentIds, LocalDateTime.now());
+        log.info("Replaying {} dead-lettered order payment notification(s)", replayed);
+        return NotificationReplayResponse.builder()
+                .replayed(replayed)
+                .build();
+    }
+    
+    private static String notifiedStatus(Payment payment) {
+        return payment.getStatus() == Payment.PaymentStatus.COMPLETED ? PAID
+                : payment.getStatus() == Payment.PaymentStatus.REFUNDED ? REFUNDED
+                : null;
+    }
+    
+    private void scheduleRetry(OrderNotification notification, String message, boolean retryable) {
+        int attempts = notification.getAttempts() + 1;
+        if (!retryable || attempts >= maxAttempts) {
+            log.error("Dead-lettering {} notification for order {} after {} attempt(s): {}",
+                    notification.getPaymentStatus(), notification.getOrderId(), attempts, message);
+            if (!orderNotificationRepository.markFailed(notification.getId(), notification.getRevision(), attempts,
+                    message)) {
+                released(notification);
+            }
+            return;
+        }
+        long jittered = backoff.delayMs(attempts);
+        if (!orderNotificationRepository.markRetry(notification.getId(), notification.getRevision(), attempts,
+                LocalDateTime.now().plus(Duration.ofMillis(jittered)), message)) {
+            released(notification);
+        }
+    }
+    
+    // A newer status was queued while this one was in flight: deliver it now rather than after the lease
+    private void released(OrderNotification notification) {
+        orderNotificationRepository.release(notification.getId(), LocalDateTime.now());
+    }
+    
+    // Client errors other than timeouts and throttling will fail the same way again, so they are not retried
+    private static boolean isRetryable(Exception error) {
+        if (!(error instanceof FeignException)) {
+            return true;
+        }
+        int status = ((FeignException) error).status();
+        return status < 400 || status >= 500 || status == 408 || status == 429;
+    }
+}
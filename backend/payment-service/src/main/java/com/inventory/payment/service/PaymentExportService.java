@@ -0,0 +1,71 @@
+package com.inventory.payment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.payment.dto.ExportFormat;
+import com.inventory.payment.model.Payment;
+import com.inventory.payment.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Exports the payments made in [from, to) straight from a Mongo cursor. Each row is written as soon as it is read,
+// so heap use does not grow with the export, and a client that reads slowly blocks the writes, which keeps the
+// cursor from fetching further batches until it catches up
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentExportService {
+    
+    private static final List<String> COLUMNS = Arrays.asList("id", "orderId", "customerId", "amount",
+            "paymentMethod", "status", "transactionId", "paymentGateway", "paymentDate", "createdBy", "createdAt",
+            "updatedAt");
+    
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+    
+    public long export(LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream outputStream)
+            throws IOException {
+        log.info("Exporting payments made from {} to {} as {}", from, to, format);
+        long startedAt = System.currentTimeMillis();
+        ExportWriter writer = new ExportWriter(format, COLUMNS, outputStream, objectMapper);
+        
+        long rows = 0;
+        try (Stream<Payment> payments = paymentRepository.streamByPaymentDate(from, to)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                writer.write(row(iterator.next()));
+                rows++;
+            }
+        }
+        writer.flush();
+        log.info("Exported {} payment row(s) in {} ms", rows, System.currentTimeMillis() - startedAt);
+        return rows;
+    }
+    
+    private static Map<String, Object> row(Payment payment) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", payment.getId());
+        row.put("orderId", payment.getOrderId());
+        row.put("customerId", payment.getCustomerId());
+        row.put("amount", payment.getAmount() == null ? null : payment.getAmount().toBigDecimal());
+        row.put("paymentMethod", payment.getPaymentMethod());
+        row.put("status", payment.getStatus());
+        row.put("transactionId", payment.getTransactionId());
+        row.put("paymentGateway", payment.getPaymentGateway());
+        row.put("paymentDate", payment.getPaymentDate());
+        row.put("createdBy", payment.getCreatedBy());
+        row.put("createdAt", payment.getCreatedAt());
+        row.put("updatedAt", payment.getUpdatedAt());
+        return row;
+    }
+}
@@ -0,0 +1,21 @@
+package com.inventory.payment.service;
+
+import com.inventory.payment.model.Payment;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// A payment provider. Each implementation serves the paymentGateway values it names, and authorize must not
+// block: the result completes when the provider answers. A gateway error or a late answer completes it
+// exceptionally and the charge is retried with the same transactionId, which providers use to deduplicate it.
+public interface PaymentGateway {
+    
+    Set<String> names();
+    
+    CompletableFuture<Outcome> authorize(Payment payment);
+    
+    enum Outcome {
+        APPROVED,
+        DECLINED
+    }
+}
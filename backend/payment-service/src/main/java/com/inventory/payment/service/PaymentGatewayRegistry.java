@@ -0,0 +1,51 @@
+package com.inventory.payment.service;
+
+import com.inventory.payment.model.Payment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Picks the gateway for a payment's paymentGateway value; payments that name none go to the default gateway
+@Component
+public class PaymentGatewayRegistry {
+    
+    private final Map<String, PaymentGateway> gateways = new HashMap<>();
+    private final String defaultGateway;
+    
+    public PaymentGatewayRegistry(List<PaymentGateway> gateways,
+                                  @Value("${payment.gateway.default:simulator}") String defaultGateway) {
+        for (PaymentGateway gateway : gateways) {
+            for (String name : gateway.names()) {
+                PaymentGateway previous = this.gateways.put(normalize(name), gateway);
+                if (previous != null && previous != gateway) {
+                    throw new IllegalStateException("Payment gateway " + name + " is served by more than one gateway");
+                }
+            }
+        }
+        this.defaultGateway = normalize(defaultGateway);
+        if (!this.gateways.containsKey(this.defaultGateway)) {
+            throw new IllegalStateException("Default payment gateway " + defaultGateway + " is not configured");
+        }
+    }
+    
+    // The canonical name to store on the payment; unknown names are rejected before anything is charged
+    public String resolveName(String name) {
+        String key = name == null || name.isBlank() ? defaultGateway : normalize(name);
+        if (!gateways.containsKey(key)) {
+            throw new IllegalArgumentException("Unknown payment gateway: " + name);
+        }
+        return key;
+    }
+    
+    public PaymentGateway forPayment(Payment payment) {
+        return gateways.get(resolveName(payment.getPaymentGateway()));
+    }
+    
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
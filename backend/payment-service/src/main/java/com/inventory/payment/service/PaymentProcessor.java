@@ -0,0 +1,311 @@
+package com.inventory.payment.service;
+
+import com.inventory.payment.model.Payment;
+import com.inventory.payment.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Settles payments off the request thread. A payment is accepted as PROCESSING and handed over here: its gateway
+// answers without holding a thread, failed or late answers are retried with backoff, and a worker then records
+// the outcome, queues the order service notification and posts the payment to its callback URL. The processing
+// lease is renewed before every gateway attempt; payments whose lease runs out, including those lost in a restart
+// or turned away while the processor was full, are picked up again by recover(), and the run that lost them stops.
+// Settlement moves the payment out of PROCESSING, so whichever outcome is recorded first stands.
+@Component
+@Slf4j
+public class PaymentProcessor {
+    
+    private final PaymentRepository paymentRepository;
+    private final PaymentStatsService paymentStatsService;
+    private final PaymentGatewayRegistry paymentGatewayRegistry;
+    private final OrderNotificationRelay orderNotificationRelay;
+    private final RestTemplate callbackClient;
+    private final Set<String> callbackHosts;
+    private final int workers;
+    private final int queueCapacity;
+    private final long gatewayTimeoutMs;
+    private final int maxGatewayAttempts;
+    private final Backoff backoff;
+    private final Duration lease;
+    private final int recoveryBatchSize;
+    private final Semaphore slots;
+    
+    private ScheduledExecutorService timer;
+    private ExecutorService settleExecutor;
+    private ExecutorService callbackExecutor;
+    
+    public PaymentProcessor(PaymentRepository paymentRepository,
+                            PaymentStatsService paymentStatsService,
+                            PaymentGatewayRegistry paymentGatewayRegistry,
+                            OrderNotificationRelay orderNotificationRelay,
+                            RestTemplateBuilder restTemplateBuilder,
+                            @Value("${payment.processing.workers:4}") int workers,
+                            @Value("${payment.processing.queue-capacity:1000}") int queueCapacity,
+                            @Value("${payment.processing.max-in-flight:10000}") int maxInFlight,
+                            @Value("${payment.gateway.timeout-ms:10000}") long gatewayTimeoutMs,
+                            @Value("${payment.gateway.max-attempts:3}") int maxGatewayAttempts,
+                            @Value("${payment.gateway.initial-backoff-ms:500}") long initialBackoffMs,
+                            @Value("${payment.gateway.max-backoff-ms:5000}") long maxBackoffMs,
+                            @Value("${payment.processing.lease-ms:60000}") long leaseMs,
+                            @Value("${payment.processing.recovery-batch-size:100}") int recoveryBatchSize,
+                            @Value("${payment.callback.timeout-ms:5000}") long callbackTimeoutMs,
+                            @Value("${payment.callback.allowed-hosts:}") List<String> callbackHosts) {
+        this.paymentRepository = paymentRepository;
+        this.paymentStatsService = paymentStatsService;
+        this.paymentGatewayRegistry = paymentGatewayRegistry;
+        this.orderNotificationRelay = orderNotificationRelay;
+        // A redirect could send the payment to a host that is not on the allow-list
+        this.callbackClient = restTemplateBuilder
+                .requestFactory(() -> new SimpleClientHttpRequestFactory() {
+                    @Override
+                    protected void prepareConnection(HttpURLConnection connection, String httpMethod)
+                            throws IOException {
+                        super.prepareConnection(connection, httpMethod);
+                        connection.setInstanceFollowRedirects(false);
+                    }
+                })
+                .setConnectTimeout(Duration.ofMillis(callbackTimeoutMs))
+                .setReadTimeout(Duration.ofMillis(callbackTimeoutMs))
+                .build();
+        this.callbackHosts = callbackHosts.stream()
+                .map(String::trim)
+                .filter(host -> !host.isEmpty())
+                .map(host -> host.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.gatewayTimeoutMs = gatewayTimeoutMs;
+        this.maxGatewayAttempts = maxGatewayAttempts;
+        this.backoff = new Backoff(initialBackoffMs, maxBackoffMs);
+        // One renewal has to cover an attempt and the backoff before the next one
+        if (leaseMs <= gatewayTimeoutMs + maxBackoffMs) {
+            throw new IllegalStateException(
+                    "payment.processing.lease-ms must exceed payment.gateway.timeout-ms plus max-backoff-ms");
+        }
+        this.lease = Duration.ofMillis(leaseMs);
+        this.recoveryBatchSize = recoveryBatchSize;
+        this.slots = new Semaphore(maxInFlight);
+    }
+    
+    @PostConstruct
+    public void start() {
+        timer = new ScheduledThreadPoolExecutor(1, daemonThreads("payment-retry-timer-"));
+        settleExecutor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("payment-settle-"));
+        // Callbacks get their own pool so a slow receiver never holds up settlement
+        callbackExecutor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("payment-callback-"));
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        timer.shutdownNow();
+        settleExecutor.shutdownNow();
+        callbackExecutor.shutdownNow();
+        timer.awaitTermination(5, TimeUnit.SECONDS);
+        settleExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        callbackExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    // The caller has saved the payment as PROCESSING with a lease; without a free slot it waits for recovery
+    public void submit(Payment payment) {
+        if (!slots.tryAcquire()) {
+            log.warn("Payment processor is full, leaving payment {} to recovery", payment.getId());
+            return;
+        }
+        authorize(payment, 1);
+    }
+    
+    // Also runs right after startup, so payments interrupted by a restart settle once their lease has run out
+    @Scheduled(fixedDelayString = "${payment.processing.recovery-interval-ms:5000}")
+    public void recover() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Payment> due = paymentRepository.findUnleasedProcessing(now, recoveryBatchSize);
+        int resumed = 0;
+        for (Payment payment : due) {
+            if (slots.availablePermits() == 0) {
+                break;
+            }
+            String owner = UUID.randomUUID().toString();
+            if (paymentRepository.claimProcessing(payment.getId(), owner, now, now.plus(lease))) {
+                payment.setProcessingOwner(owner);
+                submit(payment);
+                resumed++;
+            }
+        }
+        if (resumed > 0) {
+            log.info("Resumed processing of {} payment(s)", resumed);
+        }
+    }
+    
+    // Runs on whichever thread completes the gateway's answer, so it only hands the outcome on
+    private void authorize(Payment payment, int attempt) {
+        CompletableFuture<PaymentGateway.Outcome> answer;
+        try {
+            if (!paymentRepository.renewProcessing(
+                    payment.getId(), payment.getProcessingOwner(), LocalDateTime.now().plus(lease))) {
+                slots.release();
+                log.info("Payment {} was settled or taken over, stopping this attempt", payment.getId());
+                return;
+            }
+            answer = paymentGatewayRegistry.forPayment(payment).authorize(payment);
+        } catch (RuntimeException e) {
+            answer = CompletableFuture.failedFuture(e);
+        }
+        answer.orTimeout(gatewayTimeoutMs, TimeUnit.MILLISECONDS).whenComplete((outcome, error) -> {
+            if (error == null) {
+                if (outcome == PaymentGateway.Outcome.APPROVED) {
+                    dispatch(payment.getId(), Payment.PaymentStatus.COMPLETED, null);
+                } else {
+                    dispatch(payment.getId(), Payment.PaymentStatus.FAILED,
+                            "Declined by " + payment.getPaymentGateway());
+                }
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            String reason = cause instanceof TimeoutException
+                    ? "Gateway " + payment.getPaymentGateway() + " timed out"
+                    : "Gateway " + payment.getPaymentGateway() + " failed: " + cause.getMessage();
+            if (attempt >= maxGatewayAttempts) {
+                dispatch(payment.getId(), Payment.PaymentStatus.FAILED,
+                        reason + " after " + attempt + " attempt(s)");
+                return;
+            }
+            retry(payment, attempt, reason);
+        });
+    }
+    
+    private void retry(Payment payment, int attempt, String reason) {
+        long jittered = backoff.delayMs(attempt);
+        log.warn("{} for payment {}, retrying in {} ms", reason, payment.getId(), jittered);
+        try {
+            timer.schedule(() -> authorize(payment, attempt + 1), jittered, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            log.warn("Payment processor is stopping, leaving payment {} to recovery", payment.getId());
+        }
+    }
+    
+    private void dispatch(String paymentId, Payment.PaymentStatus outcome, String failureReason) {
+        try {
+            settleExecutor.execute(() -> {
+                try {
+                    settle(paymentId, outcome, failureReason);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            log.warn("Settlement workers are busy, leaving payment {} to recovery", paymentId);
+        }
+    }
+    
+    private void settle(String paymentId, Payment.PaymentStatus outcome, String failureReason) {
+        Optional<Payment> settled;
+        try {
+            settled = paymentRepository.settle(paymentId, outcome, failureReason, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Failed to settle payment {}, leaving it to recovery: {}", paymentId, e.getMessage());
+            return;
+        }
+        if (settled.isEmpty()) {
+            log.info("Payment {} was no longer processing, skipping settlement", paymentId);
+            return;
+        }
+        
+        Payment payment = settled.get();
+        log.info("Payment {} for order {} settled as {}", paymentId, payment.getOrderId(), outcome);
+        paymentStatsService.recordTransition(payment, Payment.PaymentStatus.PROCESSING, outcome);
+        orderNotificationRelay.enqueue(payment);
+        if (payment.getCallbackUrl() != null) {
+            sendCallback(payment);
+        }
+    }
+    
+    // Callbacks may only go to the hosts in payment.callback.allowed-hosts; with none configured every callback URL
+    // is turned away, so the service cannot be pointed at internal addresses
+    public void checkCallbackUrl(String callbackUrl) {
+        String host;
+        try {
+            URI uri = new URI(callbackUrl);
+            if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+                throw new IllegalArgumentException("Callback URL must be an http or https URL");
+            }
+            host = uri.getHost();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Callback URL is not a valid URL");
+        }
+        if (host == null || !callbackHosts.contains(host.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("Callback host is not allowed: " + host);
+        }
+    }
+    
+    // Best effort: the payment itself stays pollable, so a callback that cannot be delivered is only logged
+    private void sendCallback(Payment payment) {
+        // Payments recorded before a host was taken off the allow-list are checked again
+        try {
+            checkCallbackUrl(payment.getCallbackUrl());
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping callback for payment {}: {}", payment.getId(), e.getMessage());
+            return;
+        }
+        try {
+            callbackExecutor.execute(() -> {
+                try {
+                    callbackClient.postForLocation(payment.getCallbackUrl(),
+                            PaymentService.mapToPaymentResponse(payment));
+                } catch (RuntimeException e) {
+                    log.warn("Callback for payment {} to {} failed: {}", payment.getId(), payment.getCallbackUrl(),
+                            e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Callback workers are busy, dropping callback for payment {}", payment.getId());
+        }
+    }
+    
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,86 +1,83 @@
 package com.inventory.payment.service;
 
-import com.inventory.payment.client.OrderClient;
 import com.inventory.payment.dto.PaymentRequest;
 import com.inventory.payment.dto.PaymentResponse;
 import com.inventory.payment.exception.PaymentNotFoundException;
+import com.inventory.payment.model.Money;
 import com.inventory.payment.model.Payment;
 import com.inventory.payment.repository.PaymentRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PaymentService {
     
     private final PaymentRepository paymentRepository;
-    private final OrderClient orderClient;
+    private final OrderNotificationRelay orderNotificationRelay;
+    private final PaymentStatsService paymentStatsService;
+    private final PaymentProcessor paymentProcessor;
+    private final PaymentGatewayRegistry paymentGatewayRegistry;
+    private final Duration processingLease;
     
+    public PaymentService(PaymentRepository paymentRepository,
+                          OrderNotificationRelay orderNotificationRelay,
+                          PaymentStatsService paymentStatsService,
+                          PaymentProcessor paymentProcessor,
+                          PaymentGatewayRegistry paymentGatewayRegistry,
+                          @Value("${payment.processing.lease-ms:60000}") long processingLeaseMs) {
+        this.paymentRepository = paymentRepository;
+        this.orderNotificationRelay = orderNotificationRelay;
+        this.paymentStatsService = paymentStatsService;
+        this.paymentProcessor = paymentProcessor;
+        this.paymentGatewayRegistry = paymentGatewayRegistry;
+        this.processingLease = Duration.ofMillis(processingLeaseMs);
+    }
+    
+    // Returns as soon as the payment is recorded as PROCESSING; the outcome is settled in the background
     public PaymentResponse processPayment(PaymentRequest request, String userId) {
         log.info("Processing payment for order: {}", request.getOrderId());
+        String gateway = paymentGatewayRegistry.resolveName(request.getPaymentGateway());
+        if (request.getCallbackUrl() != null) {
+            paymentProcessor.checkCallbackUrl(request.getCallbackUrl());
+        }
         
         // Generate a unique transaction ID
         String transactionId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
         
         // Create payment record
         Payment payment = Payment.builder()
                 .orderId(request.getOrderId())
                 .customerId(request.getCustomerId())
-                .amount(request.getAmount())
+                .amount(Money.of(request.getAmount()))
                 .paymentMethod(request.getPaymentMethod())
                 .status(Payment.PaymentStatus.PROCESSING)
                 .transactionId(transactionId)
-                .paymentGateway(request.getPaymentGateway())
-                .paymentDate(LocalDateTime.now())
+                .paymentGateway(gateway)
+                .callbackUrl(request.getCallbackUrl())
+                .paymentDate(now)
+                .processingLeaseUntil(now.plus(processingLease))
+                .processingOwner(UUID.randomUUID().toString())
                 .createdBy(userId)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
+                .createdAt(now)
+                .updatedAt(now)
                 .build();
         
         Payment savedPayment = paymentRepository.save(payment);
-        
-        // Simulate payment processing
-        simulatePaymentProcessing(savedPayment);
+        paymentStatsService.recordCreated(savedPayment);
+        paymentProcessor.submit(savedPayment);
         
         return mapToPaymentResponse(savedPayment);
     }
     
-    private void simulatePaymentProcessing(Payment payment) {
-        // In a real application, this would integrate with a payment gateway
-        // For demo purposes, we'll just simulate success with a small delay
-        try {
-            Thread.sleep(1000); // Simulate processing delay
-            
-            // Simulate 90% success rate
-            if (Math.random() < 0.9) {
-                payment.setStatus(Payment.PaymentStatus.COMPLETED);
-                
-                // Update order status
-                try {
-                    orderClient.updateOrderPaymentStatus(payment.getOrderId(), "PAID");
-                } catch (Exception e) {
-                    log.error("Failed to update order payment status: {}", e.getMessage());
-                }
-            } else {
-                payment.setStatus(Payment.PaymentStatus.FAILED);
-            }
-            
-            payment.setUpdatedAt(LocalDateTime.now());
-            paymentRepository.save(payment);
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Payment processing interrupted: {}", e.getMessage());
-        }
-    }
-    
     public PaymentResponse getPaymentById(String id) {
         log.info("Fetching payment with ID: {}", id);
         Payment payment = paymentRepository.findById(id)
@@ -98,14 +95,14 @@ public class PaymentService {
     public List<PaymentResponse> getPaymentsByCustomerId(String customerId) {
         log.info("Fetching payments for customer: {}", customerId);
         return paymentRepository.findByCustomerId(customerId).stream()
-                .map(this::mapToPaymentResponse)
+                .map(PaymentService::mapToPaymentResponse)
                 .collect(Collectors.toList());
     }
     
     public List<PaymentResponse> getPaymentsByStatus(Payment.PaymentStatus status) {
         log.info("Fetching payments with status: {}", status);
         return paymentRepository.findByStatus(status).stream()
-                .map(this::mapToPaymentResponse)
+                .map(PaymentService::mapToPaymentResponse)
                 .collect(Collectors.toList());
     }
     
@@ -114,19 +111,21 @@ public class PaymentService {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new PaymentNotFoundException("Payment not found with ID: " + id));
         
-        payment.setStatus(status);
-        payment.setUpdatedAt(LocalDateTime.now());
-        
-        Payment updatedPayment = paymentRepository.save(payment);
-        
-        // If payment is completed, update order status
-        if (status == Payment.PaymentStatus.COMPLETED) {
-            try {
-                orderClient.updateOrderPaymentStatus(payment.getOrderId(), "PAID");
-            } catch (Exception e) {
-                log.error("Failed to update order payment status: {}", e.getMessage());
-            }
+        Payment.PaymentStatus previousStatus = payment.getStatus();
+        if (previousStatus == status) {
+            throw new IllegalStateException("Payment " + id + " is already " + status);
+        }
+        if (!previousStatus.canTransitionTo(status)) {
+            throw new IllegalStateException("Payment " + id + " cannot move from " + previousStatus + " to " + status);
         }
+        // Conditional on the status just read, so a concurrent change is never overwritten or counted twice
+        Payment updatedPayment = paymentRepository.transitionStatus(id, previousStatus, status, LocalDateTime.now())
+                .orElseThrow(() -> new IllegalStateException(
+                        "Payment " + id + " changed status concurrently; fetch it again and retry"));
+        paymentStatsService.recordTransition(updatedPayment, previousStatus, status);
+        
+        // If payment is completed or refunded, queue the order status update
+        orderNotificationRelay.enqueue(updatedPayment);
         
         return mapToPaymentResponse(updatedPayment);
     }
@@ -140,31 +139,32 @@ public class PaymentService {
             throw new IllegalStateException("Only completed payments can be refunded");
         }
         
-        payment.setStatus(Payment.PaymentStatus.REFUNDED);
-        payment.setUpdatedAt(LocalDateTime.now());
-        
-        Payment updatedPayment = paymentRepository.save(payment);
+        // Of concurrent refunds only the one that moves the payment out of COMPLETED goes on to count and notify
+        LocalDateTime now = LocalDateTime.now();
+        Payment updatedPayment = paymentRepository
+                .transitionStatus(id, Payment.PaymentStatus.COMPLETED, Payment.PaymentStatus.REFUNDED, now)
+                .orElseThrow(() -> new IllegalStateException("Only completed payments can be refunded"));
+        paymentStatsService.recordTransition(
+                updatedPayment, Payment.PaymentStatus.COMPLETED, Payment.PaymentStatus.REFUNDED);
         
-        // Update order status
-        try {
-            orderClient.updateOrderPaymentStatus(payment.getOrderId(), "REFUNDED");
-        } catch (Exception e) {
-            log.error("Failed to update order payment status: {}", e.getMessage());
-        }
+        // Queue the order status update
+        orderNotificationRelay.enqueue(updatedPayment);
         
         return mapToPaymentResponse(updatedPayment);
     }
     
-    private PaymentResponse mapToPaymentResponse(Payment payment) {
+    static PaymentResponse mapToPaymentResponse(Payment payment) {
         return PaymentResponse.builder()
                 .id(payment.getId())
                 .orderId(payment.getOrderId())
                 .customerId(payment.getCustomerId())
-                .amount(payment.getAmount())
+                .amount(payment.getAmount() == null ? null : payment.getAmount().toBigDecimal())
                 .paymentMethod(payment.getPaymentMethod())
                 .status(payment.getStatus())
                 .transactionId(payment.getTransactionId())
                 .paymentGateway(payment.getPaymentGateway())
+                .callbackUrl(payment.getCallbackUrl())
+                .failureReason(payment.getFailureReason())
                 .paymentDate(payment.getPaymentDate())
                 .createdAt(payment.getCreatedAt())
                 .updatedAt(payment.getUpdatedAt())
@@ -0,0 +1,313 @@
+package com.inventory.payment.service;
+
+import com.inventory.payment.dto.PaymentStatsResponse;
+import com.inventory.payment.dto.StatsRebuildResponse;
+import com.inventory.payment.exception.StatsRebuildInProgressException;
+import com.inventory.payment.model.Money;
+import com.inventory.payment.model.Payment;
+import com.inventory.payment.model.PaymentStatsBucket;
+import com.inventory.payment.model.PaymentStatusChange;
+import com.inventory.payment.repository.PaymentRepository;
+import com.inventory.payment.repository.PaymentStatsBucketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Minute, hour and day rollups of payments by status and by payment method. Status totals follow each payment's
+// current status; method totals count every payment made in the bucket. Writes that fail to reach the rollups are
+// logged and corrected by the next rebuild.
+@Service
+@Slf4j
+public class PaymentStatsService {
+    
+    private static final long MAX_BUCKETS = 1500;
+    // Payments are written with the clocks of every instance; the watermark sits this far back so no write stamped
+    // before it can still be in flight when the scan starts
+    private static final Duration WATERMARK_MARGIN = Duration.ofMinutes(1);
+    
+    private final PaymentStatsBucketRepository paymentStatsBucketRepository;
+    private final PaymentRepository paymentRepository;
+    private final Duration rebuildLockLease;
+    
+    public PaymentStatsService(PaymentStatsBucketRepository paymentStatsBucketRepository,
+                               PaymentRepository paymentRepository,
+                               @Value("${payment.stats.rebuild-lock-ms:1800000}") long rebuildLockMs) {
+        this.paymentStatsBucketRepository = paymentStatsBucketRepository;
+        this.paymentRepository = paymentRepository;
+        this.rebuildLockLease = Duration.ofMillis(rebuildLockMs);
+    }
+    
+    public void recordCreated(Payment payment) {
+        Map<String, PaymentStatsBucket> deltas = new HashMap<>();
+        addToBuckets(deltas, payment, payment.getStatus(), true, 1);
+        apply(deltas, payment);
+    }
+    
+    public void recordTransition(Payment payment, Payment.PaymentStatus from, Payment.PaymentStatus to) {
+        if (from == to) {
+            return;
+        }
+        Map<String, PaymentStatsBucket> deltas = new HashMap<>();
+        addToBuckets(deltas, payment, from, false, -1);
+        addToBuckets(deltas, payment, to, false, 1);
+        apply(deltas, payment);
+    }
+    
+    public PaymentStatsResponse getStats(PaymentStatsBucket.Granularity granularity, LocalDateTime from,
+                                         LocalDateTime to) {
+        LocalDateTime end = granularity.bucketStart(to == null ? LocalDateTime.now() : to)
+                .plus(1, granularity.getUnit());
+        LocalDateTime start = from == null ? end.minus(defaultBuckets(granularity), granularity.getUnit())
+                : granularity.bucketStart(from);
+        if (granularity.getUnit().between(start, end) > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range spans more than " + MAX_BUCKETS + " " + granularity
+                    + " buckets; use a coarser granularity");
+        }
+        log.info("Fetching {} payment stats from {} to {}", granularity, start, end);
+        
+        List<PaymentStatsBucket> buckets = paymentStatsBucketRepository
+                .findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                        granularity, start, end);
+        Map<String, PaymentStatsBucket.Totals> statusTotals = new TreeMap<>();
+        Map<String, PaymentStatsBucket.Totals> methodTotals = new TreeMap<>();
+        List<PaymentStatsResponse.Bucket> items = buckets.stream()
+                .map(bucket -> PaymentStatsResponse.Bucket.builder()
+                        .bucketStart(bucket.getBucketStart())
+                        .statuses(nonEmpty(bucket.getStatuses()))
+                        .methods(nonEmpty(bucket.getMethods()))
+                        .build())
+                .filter(bucket -> !bucket.getStatuses().isEmpty() || !bucket.getMethods().isEmpty())
+                .collect(Collectors.toList());
+        for (PaymentStatsResponse.Bucket bucket : items) {
+            bucket.getStatuses().forEach((status, totals) ->
+                    add(statusTotals, status, totals.getCount(), totals.getAmount()));
+            bucket.getMethods().forEach((method, totals) ->
+                    add(methodTotals, method, totals.getCount(), totals.getAmount()));
+        }
+        
+        return PaymentStatsResponse.builder()
+                .granularity(granularity)
+                .from(start)
+                .to(end)
+                .buckets(items)
+                .statusTotals(statusTotals)
+                .methodTotals(methodTotals)
+                .build();
+    }
+    
+    // Recomputes every bucket from the payments collection and swaps them in at once. Only one instance rebuilds at a
+    // time. The scan counts every payment as of a watermark, read back from its status history, and the payments
+    // written since are then replayed at their current status; only a write landing between that replay and the
+    // swap is lost, and the scheduled reconcile picks it up
+    public StatsRebuildResponse rebuild() {
+        String owner = UUID.randomUUID().toString();
+        if (!tryLock(owner)) {
+            throw new StatsRebuildInProgressException("Payment stats are already being rebuilt");
+        }
+        try {
+            return rebuildLocked();
+        } finally {
+            paymentStatsBucketRepository.unlockRebuild(owner);
+        }
+    }
+    
+    // Rebuilds on a schedule so increments that failed or were lost to a swap do not drift the rollups for good;
+    // skipped while another instance holds the lock
+    @Scheduled(cron = "${payment.stats.reconcile-cron:0 45 3 * * *}")
+    public void reconcile() {
+        String owner = UUID.randomUUID().toString();
+        if (!tryLock(owner)) {
+            log.info("Payment stats are being rebuilt by another instance, skipping reconcile");
+            return;
+        }
+        try {
+            rebuildLocked();
+        } finally {
+            paymentStatsBucketRepository.unlockRebuild(owner);
+        }
+    }
+    
+    // First start with rollups, or with buckets in an older layout: backfill them from the payments already stored.
+    // Replicas starting together leave it to whichever takes the lock
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!needsBackfill()) {
+            return;
+        }
+        String owner = UUID.randomUUID().toString();
+        if (!tryLock(owner)) {
+            log.info("Payment stats are being rebuilt by another instance, skipping backfill");
+            return;
+        }
+        try {
+            if (needsBackfill()) {
+                rebuildLocked();
+            }
+        } finally {
+            paymentStatsBucketRepository.unlockRebuild(owner);
+        }
+    }
+    
+    private StatsRebuildResponse rebuildLocked() {
+        long startedAt = System.currentTimeMillis();
+        log.info("Rebuilding payment stats from payment history");
+        Map<String, PaymentStatsBucket> buckets = new HashMap<>();
+        LocalDateTime watermark = LocalDateTime.now().minus(WATERMARK_MARGIN);
+        long scanned = 0;
+        try (Stream<Payment> payments = paymentRepository.streamAllBy()) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Payment payment = iterator.next();
+                scanned++;
+                if (existedAt(payment, watermark)) {
+                    addToBuckets(buckets, payment, statusAt(payment, watermark), true, 1);
+                }
+            }
+        }
+        
+        // The live buckets took the increments of these payments meanwhile, and the swap drops them; move each
+        // payment from where the scan counted it to where it is now
+        long replayed = 0;
+        try (Stream<Payment> payments = paymentRepository.streamByUpdatedAtFrom(watermark)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Payment payment = iterator.next();
+                replayed++;
+                if (existedAt(payment, watermark)) {
+                    addToBuckets(buckets, payment, statusAt(payment, watermark), false, -1);
+                    addToBuckets(buckets, payment, payment.getStatus(), false, 1);
+                } else {
+                    addToBuckets(buckets, payment, payment.getStatus(), true, 1);
+                }
+            }
+        }
+        
+        paymentStatsBucketRepository.replaceAll(buckets.values());
+        
+        long elapsedMs = System.currentTimeMillis() - startedAt;
+        log.info("Rebuilt {} payment stats bucket(s) from {} payment(s), {} replayed past the watermark, in {} ms",
+                buckets.size(), scanned, replayed, elapsedMs);
+        return StatsRebuildResponse.builder()
+                .documentsScanned(scanned)
+                .bucketsWritten(buckets.size())
+                .elapsedMs(elapsedMs)
+                .build();
+    }
+    
+    private static boolean existedAt(Payment payment, LocalDateTime at) {
+        return payment.getCreatedAt() == null || payment.getCreatedAt().isBefore(at);
+    }
+    
+    // The status the payment had at the given time: the from of its first change at or after it, else the current
+    // one. The same payment read twice gives the same answer, as long as no change stamped before the time is
+    // written in between
+    private static Payment.PaymentStatus statusAt(Payment payment, LocalDateTime at) {
+        if (payment.getStatusHistory() != null) {
+            for (PaymentStatusChange change : payment.getStatusHistory()) {
+                if (change.getChangedAt() != null && !change.getChangedAt().isBefore(at)) {
+                    return change.getFrom();
+                }
+            }
+        }
+        return payment.getStatus();
+    }
+    
+    private boolean needsBackfill() {
+        boolean empty = paymentStatsBucketRepository.count() == 0;
+        return empty ? paymentRepository.count() > 0
+                : paymentStatsBucketRepository.existsBySchemaVersionNot(PaymentStatsBucket.SCHEMA_VERSION);
+    }
+    
+    private boolean tryLock(String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        return paymentStatsBucketRepository.tryLockRebuild(owner, now, now.plus(rebuildLockLease));
+    }
+    
+    private void apply(Map<String, PaymentStatsBucket> deltas, Payment payment) {
+        try {
+            paymentStatsBucketRepository.applyDeltas(deltas.values());
+        } catch (RuntimeException e) {
+            log.warn("Failed to update payment stats for payment {}; a rebuild will correct them: {}",
+                    payment.getId(), e.getMessage());
+        }
+    }
+    
+    private static void addToBuckets(Map<String, PaymentStatsBucket> buckets, Payment payment,
+                                     Payment.PaymentStatus status, boolean countMethod, int sign) {
+        if (payment.getPaymentDate() == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Money amount = payment.getAmount() == null ? Money.zero() : payment.getAmount();
+        Money signedAmount = sign > 0 ? amount : amount.negate();
+        for (PaymentStatsBucket.Granularity granularity : PaymentStatsBucket.Granularity.values()) {
+            LocalDateTime bucketStart = granularity.bucketStart(payment.getPaymentDate());
+            LocalDateTime expiresAt = granularity.expiresAt(bucketStart);
+            if (expiresAt != null && expiresAt.isBefore(now)) {
+                continue;
+            }
+            PaymentStatsBucket bucket = buckets.computeIfAbsent(PaymentStatsBucket.idOf(granularity, bucketStart),
+                    id -> PaymentStatsBucket.builder()
+                            .id(id)
+                            .granularity(granularity)
+                            .bucketStart(bucketStart)
+                            .statuses(new HashMap<>())
+                            .methods(new HashMap<>())
+                            .schemaVersion(PaymentStatsBucket.SCHEMA_VERSION)
+                            .expiresAt(expiresAt)
+                            .build());
+            if (status != null) {
+                add(bucket.getStatuses(), status.name(), sign, signedAmount);
+            }
+            if (countMethod && payment.getPaymentMethod() != null) {
+                add(bucket.getMethods(), payment.getPaymentMethod().name(), sign, signedAmount);
+            }
+        }
+    }
+    
+    private static void add(Map<String, PaymentStatsBucket.Totals> totals, String key, long count,
+                            Money amount) {
+        PaymentStatsBucket.Totals current = totals.computeIfAbsent(key, name -> PaymentStatsBucket.Totals.builder()
+                .amount(Money.zero(amount.getCurrency()))
+                .build());
+        current.setCount(current.getCount() + count);
+        current.setAmount(current.getAmount().plus(amount));
+    }
+    
+    private static Map<String, PaymentStatsBucket.Totals> nonEmpty(Map<String, PaymentStatsBucket.Totals> totals) {
+        Map<String, PaymentStatsBucket.Totals> result = new TreeMap<>();
+        if (totals != null) {
+            totals.forEach((key, value) -> {
+                if (value.getCount() != 0) {
+                    result.put(key, value);
+                }
+            });
+        }
+        return result;
+    }
+    
+    private static long defaultBuckets(PaymentStatsBucket.Granularity granularity) {
+        switch (granularity) {
+            case MINUTE:
+                return 60;
+            case HOUR:
+                return 24;
+            default:
+                return 30;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.inventory.payment.service;
+
+import com.inventory.payment.model.Payment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Stands in for real providers when capacity testing. Each answer arrives after a latency drawn from the
+// configured distribution, on a timer rather than a blocked thread, and is an approval, a decline, or a gateway
+// error at the configured rates. Answers slower than payment.gateway.timeout-ms show up as timeouts.
+@Component
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+    
+    private final Set<String> names;
+    private final LatencyDistribution latency;
+    private final long latencyMs;
+    private final double latencySigma;
+    private final double tailAlpha;
+    private final long maxLatencyMs;
+    private final double declineRate;
+    private final double errorRate;
+    
+    private ScheduledThreadPoolExecutor timer;
+    
+    public SimulatedPaymentGateway(@Value("${payment.gateway.simulator.names:simulator}") String[] names,
+                                   @Value("${payment.gateway.simulator.latency:FIXED}") LatencyDistribution latency,
+                                   @Value("${payment.gateway.simulator.latency-ms:1000}") long latencyMs,
+                                   @Value("${payment.gateway.simulator.latency-sigma:0.5}") double latencySigma,
+                                   @Value("${payment.gateway.simulator.tail-alpha:1.5}") double tailAlpha,
+                                   @Value("${payment.gateway.simulator.max-latency-ms:120000}") long maxLatencyMs,
+                                   @Value("${payment.gateway.simulator.decline-rate:0.1}") double declineRate,
+                                   @Value("${payment.gateway.simulator.error-rate:0}") double errorRate) {
+        if (declineRate < 0 || errorRate < 0 || declineRate + errorRate > 1) {
+            throw new IllegalStateException("Simulator decline and error rates must be between 0 and 1 combined");
+        }
+        this.names = Arrays.stream(names).map(String::trim).collect(Collectors.toCollection(LinkedHashSet::new));
+        this.latency = latency;
+        this.latencyMs = latencyMs;
+        this.latencySigma = latencySigma;
+        this.tailAlpha = tailAlpha;
+        this.maxLatencyMs = maxLatencyMs;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+    }
+    
+    @PostConstruct
+    public void start() {
+        timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "payment-gateway-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Answers cut short by a timeout are cancelled, so drop them from the timer instead of letting them pile up
+        timer.setRemoveOnCancelPolicy(true);
+        log.info("Simulating payment gateway(s) {} with {} latency around {} ms, {} declines and {} errors",
+                names, latency, latencyMs, declineRate, errorRate);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        timer.shutdownNow();
+        timer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    @Override
+    public Set<String> names() {
+        return names;
+    }
+    
+    @Override
+    public CompletableFuture<Outcome> authorize(Payment payment) {
+        CompletableFuture<Outcome> result = new CompletableFuture<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMs = Math.min(maxLatencyMs, latency.sample(random, latencyMs, latencySigma, tailAlpha));
+        double roll = random.nextDouble();
+        try {
+            ScheduledFuture<?> answer = timer.schedule(() -> {
+                if (roll < errorRate) {
+                    result.completeExceptionally(new IllegalStateException(
+                            "Simulated gateway error for transaction " + payment.getTransactionId()));
+                } else {
+                    result.complete(roll < errorRate + declineRate ? Outcome.DECLINED : Outcome.APPROVED);
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+            result.whenComplete((outcome, error) -> answer.cancel(false));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+    
+    public enum LatencyDistribution {
+        // Every answer takes latency-ms
+        FIXED {
+            @Override
+            long sample(ThreadLocalRandom random, long latencyMs, double sigma, double alpha) {
+                return latencyMs;
+            }
+        },
+        // Median latency-ms; latency-sigma widens the spread
+        LOGNORMAL {
+            @Override
+            long sample(ThreadLocalRandom random, long latencyMs, double sigma, double alpha) {
+                return Math.round(latencyMs * Math.exp(sigma * random.nextGaussian()));
+            }
+        },
+        // Pareto from latency-ms upwards; the smaller tail-alpha, the more often answers take many times longer
+        HEAVY_TAIL {
+            @Override
+            long sample(ThreadLocalRandom random, long latencyMs, double sigma, double alpha) {
+                return Math.round(latencyMs / Math.pow(1 - random.nextDouble(), 1 / alpha));
+            }
+        };
+        
+        abstract long sample(ThreadLocalRandom random, long latencyMs, double sigma, double alpha);
+    }
+}
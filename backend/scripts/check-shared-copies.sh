@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Fails when the classes each service carries its own copy of have drifted apart. Copies are compared with the
+# service name taken out of package names and property keys, so com.inventory.order.model.Money and
+# com.inventory.payment.model.Money must otherwise match line for line.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+SERVICES="order inventory payment"
+
+SHARED="
+model/Money.java
+config/MongoConversionConfig.java
+service/IdempotencyService.java
+model/IdempotencyRecord.java
+repository/IdempotencyRecordRepository.java
+repository/IdempotencyRecordRepositoryCustom.java
+repository/IdempotencyRecordRepositoryImpl.java
+service/Backoff.java
+service/ExportWriter.java
+controller/ETags.java
+dto/CursorPageResponse.java
+"
+
+normalize() {
+    sed -E 's/com\.inventory\.(order|inventory|payment)\b/com.inventory.SERVICE/g; s/\$\{(order|inventory|payment)\./${SERVICE./g' "$1"
+}
+
+status=0
+for path in $SHARED; do
+    reference=""
+    for service in $SERVICES; do
+        file="$service-service/src/main/java/com/inventory/$service/$path"
+        [ -f "$file" ] || continue
+        if [ -z "$reference" ]; then
+            reference="$file"
+            continue
+        fi
+        if ! diff -u --label "$reference" --label "$file" <(normalize "$reference") <(normalize "$file"); then
+            status=1
+        fi
+    done
+    if [ -z "$reference" ]; then
+        echo "No copy of $path found" >&2
+        status=1
+    fi
+done
+
+if [ "$status" -ne 0 ]; then
+    echo "Shared copies have drifted; change every copy together" >&2
+fi
+exit "$status"